@@ -0,0 +1,51 @@
+package knapsack;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.IncrementalSolver;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Re-solving after an edit: a new capacity followed by the fractional and greedy values,
+ * and an item update that is reverted straight away so the instance stays the same.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IncrementalBenchmark {
+    
+    @Param({"knapPI_1_1000_1000_1.txt", "knapPI_1_10000_1000_1.txt",
+            "knapPI_2_1000_1000_1.txt", "knapPI_2_10000_1000_1.txt",
+            "knapPI_3_1000_1000_1.txt", "knapPI_3_10000_1000_1.txt"})
+    public String file;
+    
+    private ColumnarDataset columns;
+    private IncrementalSolver incremental;
+    private SplittableRandom edits;
+    
+    @Setup
+    public void load() throws IOException {
+        columns = ColumnarDataset.load(file);
+        incremental = new IncrementalSolver(columns);
+        edits = new SplittableRandom(1);
+    }
+    
+    @Benchmark
+    public double capacity() {
+        incremental.setCapacity(edits.nextInt(2 * columns.capacity + 1));
+        return incremental.fractionalValue() + incremental.greedyValue();
+    }
+    
+    @Benchmark
+    public int update() {
+        int p = edits.nextInt(columns.n);
+        incremental.update(p + 1, columns.weights[p] + 1, columns.values[p]);
+        incremental.update(p + 1, columns.weights[p], columns.values[p]);
+        return incremental.size();
+    }
+}
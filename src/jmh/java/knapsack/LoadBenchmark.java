@@ -0,0 +1,75 @@
+package knapsack;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.Dataset;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Loading an instance through the cached loader (the .kpb sidecar once written), the text
+ * parser and the Dataset view with its boxed Items, and building the derived orderings cold or
+ * from the cache.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+    
+    @Param({"knapPI_1_100_1000_1.txt", "knapPI_1_200_1000_1.txt", "knapPI_1_500_1000_1.txt",
+        "knapPI_1_1000_1000_1.txt", "knapPI_1_2000_1000_1.txt", "knapPI_1_5000_1000_1.txt",
+        "knapPI_1_10000_1000_1.txt",
+        "knapPI_2_100_1000_1.txt", "knapPI_2_200_1000_1.txt", "knapPI_2_500_1000_1.txt",
+        "knapPI_2_1000_1000_1.txt", "knapPI_2_2000_1000_1.txt", "knapPI_2_5000_1000_1.txt",
+        "knapPI_2_10000_1000_1.txt",
+        "knapPI_3_100_1000_1.txt", "knapPI_3_200_1000_1.txt", "knapPI_3_500_1000_1.txt",
+        "knapPI_3_1000_1000_1.txt", "knapPI_3_2000_1000_1.txt", "knapPI_3_5000_1000_1.txt",
+        "knapPI_3_10000_1000_1.txt",
+        "f1_l-d_kp_10_269.txt", "f2_l-d_kp_20_878.txt", "f3_l-d_kp_4_20.txt", "f4_l-d_kp_4_11.txt",
+        "f6_l-d_kp_10_60.txt", "f7_l-d_kp_7_50.txt", "f8_l-d_kp_23_10000.txt", "f9_l-d_kp_5_80.txt",
+        "f10_l-d_kp_20_879.txt"})
+    public String file;
+    
+    private ColumnarDataset cached;
+    
+    @Setup
+    public void load() throws IOException {
+        cached = ColumnarDataset.load(file);
+    }
+    
+    @Benchmark
+    public Object columnar() throws IOException {
+        return ColumnarDataset.load(file);
+    }
+    
+    @Benchmark
+    public Object text() throws IOException {
+        return ColumnarDataset.loadText(file);
+    }
+    
+    @Benchmark
+    public Object items() throws IOException {
+        return new Dataset(file).getItemsCopy();
+    }
+    
+    @Benchmark
+    public long derivedCold() {
+        cached.derived.clear();
+        return derivedDataChecksum(cached);
+    }
+    
+    @Benchmark
+    public long derivedCached() {
+        return derivedDataChecksum(cached);
+    }
+    
+    // Touches every cached ordering, prefix sum and pool that the strategies use
+    private static long derivedDataChecksum(ColumnarDataset data) {
+        return data.orderByRatio().length + data.orderByValue().length + data.orderByWeight().length
+             + data.prefixWeightsByRatio()[data.n] + data.prefixValuesByRatio()[data.n]
+             + KnapsackSolver.topValuePositions(data).length;
+    }
+}
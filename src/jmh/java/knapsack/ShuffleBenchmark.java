@@ -0,0 +1,45 @@
+package knapsack;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.SeededRandom;
+import knapsack.KnapsackSolver.TrialEngine;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The shuffle each Monte Carlo trial pays for, per generator algorithm. Every (file,
+ * generator) pair runs in its own fork, so one generator's profile cannot bias another's.
+ * Only n matters to the shuffle, so one instance type covers the sizes.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShuffleBenchmark {
+    
+    @Param({"knapPI_1_100_1000_1.txt", "knapPI_1_1000_1000_1.txt", "knapPI_1_10000_1000_1.txt"})
+    public String file;
+    
+    @Param({"Random", "SplittableRandom", "L64X128MixRandom", "L32X64MixRandom", "Xoshiro256PlusPlus"})
+    public String generator;
+    
+    private TrialEngine engine;
+    private RandomGenerator rand;
+    
+    @Setup
+    public void load() throws IOException {
+        ColumnarDataset data = ColumnarDataset.load(file);
+        engine = new TrialEngine(data.weights, data.values, KnapsackSolver.allPositions(data.n), data.capacity);
+        rand = SeededRandom.of(generator, 1).generator();
+    }
+    
+    @Benchmark
+    public int shuffle() {
+        engine.shuffle(rand);
+        return engine.order[0];
+    }
+}
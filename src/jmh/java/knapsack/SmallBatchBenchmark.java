@@ -0,0 +1,78 @@
+package knapsack;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.Result;
+import knapsack.KnapsackSolver.SmallBatch;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * One batch kernel call over copies of the small bundled instances against calling the
+ * matching strategy once per instance. Both solve the whole batch per operation, so the
+ * scores compare directly; the small-batch command checks that their values agree.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmallBatchBenchmark {
+    
+    @Param({"exact-dp", "zo-ratio", "zo-value", "zo-weight", "frac-ratio"})
+    public String strategy;
+    
+    @Param({"1000"})
+    public int copies;
+    
+    private List<ColumnarDataset> instances;
+    private Supplier<Object> kernel;
+    private Function<ColumnarDataset, Result> perInstance;
+    
+    @Setup
+    public void load() throws IOException {
+        List<ColumnarDataset> distinct = new ArrayList<>();
+        for (String filename : KnapsackSolver.bundledInstanceFiles()) {
+            ColumnarDataset data;
+            try {
+                data = ColumnarDataset.load(filename);
+            } catch (IOException e) {
+                continue; // f5 has decimal weights
+            }
+            if (data.n <= SmallBatch.MAX_ITEMS) distinct.add(data);
+        }
+        instances = new ArrayList<>();
+        for (int c = 0; c < copies; c++) {
+            instances.addAll(distinct);
+        }
+        SmallBatch batch = SmallBatch.of(instances);
+        switch (strategy) {
+            case "exact-dp": kernel = batch::solveExact; break;
+            case "zo-ratio": kernel = () -> batch.solveGreedy(SmallBatch.Order.RATIO); break;
+            case "zo-value": kernel = () -> batch.solveGreedy(SmallBatch.Order.VALUE); break;
+            case "zo-weight": kernel = () -> batch.solveGreedy(SmallBatch.Order.WEIGHT); break;
+            default: kernel = batch::solveFractional; break;
+        }
+        perInstance = KnapsackSolver.STRATEGIES.get(strategy);
+    }
+    
+    @Benchmark
+    public Object kernel() {
+        return kernel.get();
+    }
+    
+    @Benchmark
+    public double perInstance() {
+        double total = 0;
+        for (ColumnarDataset data : instances) {
+            data.derived.clear(); // each instance is new to the per-instance path
+            total += perInstance.apply(data).totalValue;
+        }
+        return total;
+    }
+}
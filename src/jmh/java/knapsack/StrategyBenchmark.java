@@ -0,0 +1,63 @@
+package knapsack;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.Dataset;
+import knapsack.KnapsackSolver.Result;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The nine list strategies on every bundled instance, once over the boxed Dataset and once
+ * over the ColumnarDataset registry entry of the same name. f5_l-d_kp_15_375.txt is left
+ * out because its decimal weights do not parse.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrategyBenchmark {
+    
+    @Param({"knapPI_1_100_1000_1.txt", "knapPI_1_200_1000_1.txt", "knapPI_1_500_1000_1.txt",
+        "knapPI_1_1000_1000_1.txt", "knapPI_1_2000_1000_1.txt", "knapPI_1_5000_1000_1.txt",
+        "knapPI_1_10000_1000_1.txt",
+        "knapPI_2_100_1000_1.txt", "knapPI_2_200_1000_1.txt", "knapPI_2_500_1000_1.txt",
+        "knapPI_2_1000_1000_1.txt", "knapPI_2_2000_1000_1.txt", "knapPI_2_5000_1000_1.txt",
+        "knapPI_2_10000_1000_1.txt",
+        "knapPI_3_100_1000_1.txt", "knapPI_3_200_1000_1.txt", "knapPI_3_500_1000_1.txt",
+        "knapPI_3_1000_1000_1.txt", "knapPI_3_2000_1000_1.txt", "knapPI_3_5000_1000_1.txt",
+        "knapPI_3_10000_1000_1.txt",
+        "f1_l-d_kp_10_269.txt", "f2_l-d_kp_20_878.txt", "f3_l-d_kp_4_20.txt", "f4_l-d_kp_4_11.txt",
+        "f6_l-d_kp_10_60.txt", "f7_l-d_kp_7_50.txt", "f8_l-d_kp_23_10000.txt", "f9_l-d_kp_5_80.txt",
+        "f10_l-d_kp_20_879.txt"})
+    public String file;
+    
+    @Param({"frac-ratio", "frac-value", "frac-weight", "zo-ratio", "zo-value", "zo-weight", "random", "mc1", "mc2"})
+    public String strategy;
+    
+    private Dataset dataset;
+    private ColumnarDataset columns;
+    private Function<Dataset, Result> listStrategy;
+    private Function<ColumnarDataset, Result> columnarStrategy;
+    
+    @Setup
+    public void load() throws IOException {
+        dataset = new Dataset(file);
+        columns = ColumnarDataset.load(file);
+        listStrategy = KnapsackSolver.LIST_STRATEGIES.get(strategy);
+        columnarStrategy = KnapsackSolver.STRATEGIES.get(strategy);
+    }
+    
+    @Benchmark
+    public Object list() {
+        return listStrategy.apply(dataset);
+    }
+    
+    @Benchmark
+    public Object columnar() {
+        return columnarStrategy.apply(columns);
+    }
+}
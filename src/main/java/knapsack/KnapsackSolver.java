@@ -0,0 +1,5827 @@
+package knapsack;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.zip.CRC32;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * CS311 Project: Knapsack Problem Solver
+ * Implements Greedy and Randomized strategies for Fractional and 0-1 Knapsack problems
+ */
+public class KnapsackSolver {
+    
+    // Item class to represent each knapsack item
+    static class Item implements Comparable<Item> {
+        int id;
+        int weight;
+        int value;
+        double ratio; // value-to-weight ratio
+        
+        public Item(int id, int weight, int value) {
+            this.id = id;
+            this.weight = weight;
+            this.value = value;
+            this.ratio = ratioOf(weight, value);
+        }
+        
+        // Value per unit of weight; a zero-weight item with positive value ranks above every other
+        static double ratioOf(int weight, int value) {
+            if (weight > 0) return (double) value / weight;
+            return (value > 0) ? Double.POSITIVE_INFINITY : 0;
+        }
+        
+        @Override
+        public int compareTo(Item other) {
+            return Double.compare(other.ratio, this.ratio); // Descending order
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Item[id=%d, w=%d, v=%d, ratio=%.2f]", 
+                                id, weight, value, ratio);
+        }
+    }
+    
+    // Result class to store algorithm results
+    static class Result {
+        double totalValue;
+        double totalWeight;
+        long executionTime; // in nanoseconds
+        List<Integer> selectedItems;
+        String strategyName;
+        boolean provenOptimal; // set by exact solvers that completed their search
+        double optimalValue = -1; // known optimum of the instance, or -1 if unknown
+        
+        // Instrumentation: trial counters are always kept, the rest only while Metrics.enabled
+        long trials;
+        int improvements;
+        long timeToBestNanos = -1;
+        Map<String, Long> phaseNanos;      // per phase, in the order the phases ran
+        long allocatedBytes = -1;
+        LatencyHistogram trialLatencies;
+        
+        // Randomized strategies: the generator algorithm and seed that replay the run, null otherwise
+        String generator;
+        long seed;
+        
+        public Result(String strategyName) {
+            this.strategyName = strategyName;
+            this.selectedItems = new ArrayList<>();
+        }
+        
+        public Result(String strategyName, Dataset dataset) {
+            this(strategyName);
+            this.optimalValue = dataset.optimalValue;
+        }
+        
+        public Result(String strategyName, ColumnarDataset data) {
+            this(strategyName);
+            this.optimalValue = data.optimalValue;
+        }
+        
+        public double getOptimalityRatio(double optimalValue) {
+            return (optimalValue > 0) ? (totalValue / optimalValue) * 100 : 0;
+        }
+        
+        // Optimality against the instance's known optimum, NaN if there is none
+        public double getOptimalityRatio() {
+            return (optimalValue > 0) ? getOptimalityRatio(optimalValue) : Double.NaN;
+        }
+        
+        // Percentage below the known optimum, NaN if there is none
+        public double getOptimalityGap() {
+            return 100 - getOptimalityRatio();
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s: Value=%.2f, Weight=%.2f, Time=%.3f ms",
+                                strategyName, totalValue, totalWeight, 
+                                executionTime / 1_000_000.0);
+        }
+    }
+    
+    // Dataset class to hold problem instance: a view over the columns that boxes Items on demand
+    static class Dataset {
+        int n; // number of items
+        int capacity;
+        String filename;
+        byte[] optimalSelection; // 0/1 per item from the knapPI solution line, or null
+        long optimalValue = -1;  // value of optimalSelection, or -1 if unknown
+        private ColumnarDataset columnar; // the same instance in columns, with its derived-data cache
+        
+        public Dataset(String filename) throws IOException {
+            this.filename = filename;
+            loadData(filename);
+        }
+        
+        private void loadData(String filename) throws IOException {
+            ColumnarDataset data = ColumnarDataset.load(filename);
+            n = data.n;
+            capacity = data.capacity;
+            optimalSelection = data.optimalSelection;
+            optimalValue = data.optimalValue;
+            columnar = data;
+        }
+        
+        // Item weights indexed by position (id - 1)
+        public int[] getWeights() {
+            return columnar.weights.clone();
+        }
+        
+        // Item values indexed by position (id - 1)
+        public int[] getValues() {
+            return columnar.values.clone();
+        }
+        
+        // Column view loaded with this dataset; orderings and pools computed on it are cached
+        public ColumnarDataset columnar() {
+            return columnar;
+        }
+        
+        // Fresh Items built from the columns; the strategies sort and consume them, so none are kept here
+        public List<Item> getItemsCopy() {
+            List<Item> copy = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                copy.add(new Item(i + 1, columnar.weights[i], columnar.values[i]));
+            }
+            return copy;
+        }
+    }
+    
+    // Column-oriented dataset: primitive arrays plus orderings that are sorted once and cached.
+    // An item at position p has id p + 1, as in Dataset.
+    static class ColumnarDataset {
+        int n; // number of items
+        int capacity;
+        int[] weights;
+        int[] values;
+        double[] ratios; // value-to-weight ratio
+        byte[] optimalSelection; // 0/1 per position from the knapPI solution line, or null
+        long optimalValue = -1;  // value of optimalSelection, or -1 if unknown
+        String filename;
+        
+        // Orderings, prefix sums and candidate pools, computed on first use
+        final DerivedDataCache derived;
+        
+        public ColumnarDataset(Dataset dataset) {
+            this(dataset.filename, dataset.capacity, dataset.getWeights(), dataset.getValues());
+            this.optimalSelection = dataset.optimalSelection;
+            this.optimalValue = dataset.optimalValue;
+        }
+        
+        public ColumnarDataset(String filename, int capacity, int[] weights, int[] values) {
+            this.filename = filename;
+            this.n = weights.length;
+            this.capacity = capacity;
+            this.weights = weights;
+            this.values = values;
+            this.ratios = new double[n];
+            for (int i = 0; i < n; i++) {
+                ratios[i] = Item.ratioOf(weights[i], values[i]);
+            }
+            this.derived = new DerivedDataCache(DerivedDataCache.DEFAULT_MAX_BYTES);
+        }
+        
+        private ColumnarDataset(ColumnarDataset base, int capacity) {
+            this.filename = base.filename;
+            this.n = base.n;
+            this.capacity = capacity;
+            this.weights = base.weights;
+            this.values = base.values;
+            this.ratios = base.ratios;
+            this.derived = base.derived;
+        }
+        
+        // The same items under another capacity. Columns and the derived-data cache are shared,
+        // as nothing cached depends on the capacity; the stored optimum does, so it is dropped.
+        public ColumnarDataset withCapacity(int capacity) {
+            return (capacity == this.capacity) ? this : new ColumnarDataset(this, capacity);
+        }
+        
+        /**
+         * Loads an instance file. A .kpb file is read as binary (see BinaryInstance); a text
+         * file is read from its .kpb sidecar when that is current, and parsed otherwise.
+         */
+        public static ColumnarDataset load(String filename) throws IOException {
+            long phaseStart = Metrics.now();
+            ColumnarDataset data = filename.endsWith(BinaryInstance.EXTENSION)
+                ? BinaryInstance.read(filename) : BinaryInstance.loadCached(filename);
+            Metrics.phase(null, "load", phaseStart);
+            return data;
+        }
+        
+        /**
+         * Parses a text instance file through a memory-mapped buffer, ignoring any sidecar.
+         * Reads both the knapPI_* and the f*_l-d_kp_* formats: a "n capacity" line,
+         * n "value weight" lines, and for knapPI files an optional line holding the
+         * 0/1 vector of the optimal selection.
+         */
+        public static ColumnarDataset loadText(String filename) throws IOException {
+            try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("File too large to map: " + filename);
+                }
+                return parse(filename, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+        }
+        
+        static ColumnarDataset parse(String filename, ByteBuffer buffer) throws IOException {
+            AsciiIntReader in = new AsciiIntReader(buffer);
+            int n = in.nextInt();
+            int capacity = in.nextInt();
+            if (n < 0) {
+                throw new IOException("Negative item count in " + filename);
+            }
+            
+            int[] weights = new int[n];
+            int[] values = new int[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = in.nextInt();
+                weights[i] = in.nextInt();
+            }
+            
+            ColumnarDataset data = new ColumnarDataset(filename, capacity, weights, values);
+            byte[] selection = readSelection(in, n);
+            if (selection != null) {
+                // Scored once here, so every result can report its gap without an exact solve
+                long value = 0;
+                long weight = 0;
+                for (int p = 0; p < n; p++) {
+                    if (selection[p] == 1) {
+                        value += values[p];
+                        weight += weights[p];
+                    }
+                }
+                if (weight <= capacity) {
+                    data.optimalSelection = selection;
+                    data.optimalValue = value;
+                }
+            }
+            return data;
+        }
+        
+        // The trailing solution line is optional; anything other than n 0/1 values is ignored
+        private static byte[] readSelection(AsciiIntReader in, int n) {
+            try {
+                if (!in.hasNext()) return null;
+                byte[] selection = new byte[n];
+                int count = 0;
+                while (in.hasNext()) {
+                    int bit = in.nextInt();
+                    if (count == n || (bit != 0 && bit != 1)) return null;
+                    selection[count++] = (byte) bit;
+                }
+                return (count == n) ? selection : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        
+        // Highest ratio first; ties keep position order, like Collections.sort on Items
+        public int[] orderByRatio() {
+            return derived.intArray("order:ratio",
+                    () -> sortPositions(n, (a, b) -> Double.compare(ratios[b], ratios[a])));
+        }
+        
+        // Highest value first
+        public int[] orderByValue() {
+            return derived.intArray("order:value", () -> sortPositionsByKey(values, true));
+        }
+        
+        // Lowest weight first
+        public int[] orderByWeight() {
+            return derived.intArray("order:weight", () -> sortPositionsByKey(weights, false));
+        }
+        
+        // Entry i is the total weight of the first i items in ratio order
+        public long[] prefixWeightsByRatio() {
+            return derived.longArray("prefix-weight:ratio", () -> prefixSums(orderByRatio(), weights));
+        }
+        
+        // Entry i is the total value of the first i items in ratio order
+        public long[] prefixValuesByRatio() {
+            return derived.longArray("prefix-value:ratio", () -> prefixSums(orderByRatio(), values));
+        }
+        
+        // The highest-value fraction of items (at least one), best first, as sampled by Monte Carlo 2
+        public int[] topValuePositions(double fraction) {
+            return derived.intArray("top-value:" + fraction, () -> {
+                int topCount = Math.min(n, Math.max(1, (int)(n * fraction)));
+                return Arrays.copyOf(orderByValue(), topCount);
+            });
+        }
+        
+        private static long[] prefixSums(int[] order, int[] column) {
+            long[] prefix = new long[order.length + 1];
+            for (int i = 0; i < order.length; i++) {
+                prefix[i + 1] = prefix[i] + column[order[i]];
+            }
+            return prefix;
+        }
+    }
+    
+    /**
+     * Bounded cache for data derived from one instance (orderings, prefix sums,
+     * candidate pools). Once the entries outgrow maxBytes the least recently used
+     * are evicted and rebuilt on their next request. Values are computed outside
+     * the lock, so concurrent readers never wait on a sort; if two threads race on
+     * the same key the first value stored wins. Cached arrays are shared and must
+     * not be modified.
+     */
+    static class DerivedDataCache {
+        static final long DEFAULT_MAX_BYTES = 64L << 20;
+        
+        private final LinkedHashMap<String, Object> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long maxBytes;
+        private long bytes;
+        private long hits;
+        private long misses;
+        private long evictions;
+        
+        DerivedDataCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+        
+        int[] intArray(String key, Supplier<int[]> compute) {
+            return (int[]) get(key, compute);
+        }
+        
+        long[] longArray(String key, Supplier<long[]> compute) {
+            return (long[]) get(key, compute);
+        }
+        
+        private Object get(String key, Supplier<?> compute) {
+            synchronized (this) {
+                Object value = entries.get(key);
+                if (value != null) {
+                    hits++;
+                    return value;
+                }
+                misses++;
+            }
+            
+            Object value = compute.get();
+            long size = sizeOf(value);
+            synchronized (this) {
+                Object existing = entries.get(key);
+                if (existing != null) return existing;
+                if (size <= maxBytes) {
+                    entries.put(key, value);
+                    bytes += size;
+                    evict();
+                }
+            }
+            return value;
+        }
+        
+        // Changes the bound, evicting at once if the cache is now over it
+        synchronized void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            evict();
+        }
+        
+        synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+        
+        synchronized long bytes() {
+            return bytes;
+        }
+        
+        synchronized String stats() {
+            return String.format("%d entries, %d bytes, %d hits, %d misses, %d evictions",
+                                 entries.size(), bytes, hits, misses, evictions);
+        }
+        
+        // Iteration order is least recently used first
+        private void evict() {
+            Iterator<Object> it = entries.values().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= sizeOf(it.next());
+                it.remove();
+                evictions++;
+            }
+        }
+        
+        private static long sizeOf(Object value) {
+            if (value instanceof int[]) return 16 + 4L * ((int[]) value).length;
+            if (value instanceof long[]) return 16 + 8L * ((long[]) value).length;
+            return 16;
+        }
+    }
+    
+    /**
+     * Parses whitespace-separated ASCII integers straight from a byte buffer,
+     * without building intermediate Strings.
+     */
+    static class AsciiIntReader {
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int pos;
+        
+        AsciiIntReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.pos = buffer.position();
+            this.limit = buffer.limit();
+        }
+        
+        // Skips whitespace; true if another token follows
+        boolean hasNext() {
+            while (pos < limit && buffer.get(pos) <= ' ') {
+                pos++;
+            }
+            return pos < limit;
+        }
+        
+        int nextInt() throws IOException {
+            if (!hasNext()) {
+                throw new IOException("Unexpected end of file at byte " + pos);
+            }
+            int start = pos;
+            boolean negative = buffer.get(pos) == '-';
+            if (negative) pos++;
+            
+            long value = 0;
+            int digitsStart = pos;
+            while (pos < limit) {
+                int digit = buffer.get(pos) - '0';
+                if (digit < 0 || digit > 9) break;
+                value = value * 10 + digit;
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new IOException("Integer out of range at byte " + start);
+                }
+                pos++;
+            }
+            
+            // The token must end at whitespace or end of file (rejects "0.125", "12x", "-")
+            if (pos == digitsStart || (pos < limit && buffer.get(pos) > ' ')) {
+                throw new IOException("Expected an integer at byte " + start);
+            }
+            if (negative) value = -value;
+            if (value > Integer.MAX_VALUE) {
+                throw new IOException("Integer out of range at byte " + start);
+            }
+            return (int) value;
+        }
+    }
+    
+    /**
+     * Binary instance file (.kpb): a 48-byte little-endian header, then the value and weight
+     * columns as little-endian ints and, if flagged, the optimal 0/1 selection as one byte per
+     * item. The header holds magic "KPB1", n, capacity, flags, the optimal value (-1 if
+     * unknown), a CRC32 of everything after the header, and the size and modification time
+     * of the text file it was converted from (both 0 for a standalone conversion).
+     * Text instances get a "<file>.kpb" sidecar that is used while it matches its source.
+     */
+    static class BinaryInstance {
+        static final String EXTENSION = ".kpb";
+        static final int MAGIC = 0x3142504B; // "KPB1" read little-endian
+        static final int HEADER_BYTES = 48;
+        static final int FLAG_SELECTION = 1;
+        // -Dknapsack.binaryCache=false stops text loads from reading or writing sidecars
+        static final boolean SIDECARS = !"false".equals(System.getProperty("knapsack.binaryCache"));
+        
+        static Path sidecarOf(String filename) {
+            return Paths.get(filename + EXTENSION);
+        }
+        
+        /**
+         * Loads a text instance through its sidecar: a sidecar whose recorded source size and
+         * modification time match is mapped; otherwise the text is parsed and the sidecar
+         * rewritten. Sidecar problems never fail the load, they only fall back to the text.
+         */
+        static ColumnarDataset loadCached(String filename) throws IOException {
+            if (!SIDECARS) return ColumnarDataset.loadText(filename);
+            Path source = Paths.get(filename);
+            long size = Files.size(source);
+            long modified = Files.getLastModifiedTime(source).toMillis();
+            Path sidecar = sidecarOf(filename);
+            if (Files.isRegularFile(sidecar)) {
+                try {
+                    ColumnarDataset data = read(sidecar, filename, size, modified);
+                    if (data != null) return data;
+                } catch (IOException e) {
+                    // Corrupt or foreign sidecar: rebuilt below
+                }
+            }
+            
+            ColumnarDataset data = ColumnarDataset.loadText(filename);
+            try {
+                write(data, sidecar, size, modified);
+            } catch (IOException e) {
+                // Read-only directory and the like: keep working from the text file
+            }
+            return data;
+        }
+        
+        // Reads a .kpb file on its own, whatever it was converted from
+        static ColumnarDataset read(String filename) throws IOException {
+            return read(Paths.get(filename), filename, -1, -1);
+        }
+        
+        /**
+         * Maps the file and bulk-copies its columns into the dataset's arrays. Returns null if
+         * sourceSize/sourceModified are given (not -1) and differ from the header's.
+         */
+        static ColumnarDataset read(Path path, String filename, long sourceSize, long sourceModified) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long fileSize = channel.size();
+                if (fileSize < HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                    throw new IOException("Not a binary instance: " + path);
+                }
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize)
+                                           .order(ByteOrder.LITTLE_ENDIAN);
+                if (buffer.getInt(0) != MAGIC) {
+                    throw new IOException("Not a binary instance: " + path);
+                }
+                int n = buffer.getInt(4);
+                int capacity = buffer.getInt(8);
+                int flags = buffer.getInt(12);
+                long optimalValue = buffer.getLong(16);
+                int checksum = buffer.getInt(24);
+                if (sourceSize != -1 && (buffer.getLong(32) != sourceSize || buffer.getLong(40) != sourceModified)) {
+                    return null;
+                }
+                boolean hasSelection = (flags & FLAG_SELECTION) != 0;
+                long expectedSize = HEADER_BYTES + 8L * n + (hasSelection ? n : 0);
+                if (n < 0 || fileSize != expectedSize) {
+                    throw new IOException("Truncated binary instance: " + path);
+                }
+                
+                CRC32 crc = new CRC32();
+                crc.update(buffer.duplicate().position(HEADER_BYTES));
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException("Checksum mismatch in " + path);
+                }
+                
+                int[] values = new int[n];
+                int[] weights = new int[n];
+                buffer.position(HEADER_BYTES);
+                buffer.asIntBuffer().get(values);
+                buffer.position(HEADER_BYTES + 4 * n);
+                buffer.asIntBuffer().get(weights);
+                ColumnarDataset data = new ColumnarDataset(filename, capacity, weights, values);
+                if (hasSelection) {
+                    data.optimalSelection = new byte[n];
+                    buffer.get(HEADER_BYTES + 8 * n, data.optimalSelection);
+                    data.optimalValue = optimalValue;
+                }
+                return data;
+            }
+        }
+        
+        // Writes through a temporary file and a rename, so readers never see a partial file
+        static void write(ColumnarDataset data, Path path, long sourceSize, long sourceModified) throws IOException {
+            int n = data.n;
+            boolean hasSelection = data.optimalSelection != null;
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 8 * n + (hasSelection ? n : 0))
+                                          .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(HEADER_BYTES);
+            buffer.asIntBuffer().put(data.values).put(data.weights);
+            if (hasSelection) {
+                buffer.put(HEADER_BYTES + 8 * n, data.optimalSelection);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(HEADER_BYTES));
+            buffer.putInt(0, MAGIC)
+                  .putInt(4, n)
+                  .putInt(8, data.capacity)
+                  .putInt(12, hasSelection ? FLAG_SELECTION : 0)
+                  .putLong(16, hasSelection ? data.optimalValue : -1)
+                  .putInt(24, (int) crc.getValue())
+                  .putInt(28, 0)
+                  .putLong(32, sourceSize)
+                  .putLong(40, sourceModified);
+            buffer.position(0);
+            
+            Path absolute = path.toAbsolutePath();
+            Path temp = absolute.resolveSibling(absolute.getFileName() + "." + ProcessHandle.current().pid()
+                                                + "-" + Thread.currentThread().getId() + ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                            StandardOpenOption.TRUNCATE_EXISTING)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                try {
+                    Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        
+        // Converts a text instance into a standalone .kpb file
+        static void convert(String textFile, String binaryFile) throws IOException {
+            write(ColumnarDataset.loadText(textFile), Paths.get(binaryFile), 0, 0);
+        }
+    }
+    
+    interface PositionComparator {
+        int compare(int a, int b);
+    }
+    
+    // Stable sort of positions 0..n-1 by an int key, packing key and position into one long
+    static int[] sortPositionsByKey(int[] keys, boolean descending) {
+        int n = keys.length;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            int key = descending ? ~keys[i] : keys[i];
+            packed[i] = ((long) key << 32) | i;
+        }
+        Arrays.sort(packed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) packed[i];
+        }
+        return order;
+    }
+    
+    // Stable bottom-up merge sort of positions 0..n-1
+    static int[] sortPositions(int n, PositionComparator cmp) {
+        int[] order = allPositions(n);
+        int[] buffer = new int[n];
+        
+        // Insertion sort small runs first
+        final int run = 32;
+        for (int lo = 0; lo < n; lo += run) {
+            int hi = Math.min(lo + run, n);
+            for (int i = lo + 1; i < hi; i++) {
+                int p = order[i];
+                int j = i - 1;
+                while (j >= lo && cmp.compare(order[j], p) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = p;
+            }
+        }
+        
+        for (int width = run; width < n; width <<= 1) {
+            for (int lo = 0; lo < n; lo += width << 1) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + (width << 1), n);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    buffer[k++] = (cmp.compare(order[j], order[i]) < 0) ? order[j++] : order[i++];
+                }
+                while (i < mid) buffer[k++] = order[i++];
+                while (j < hi) buffer[k++] = order[j++];
+            }
+            int[] tmp = order;
+            order = buffer;
+            buffer = tmp;
+        }
+        return order;
+    }
+    
+    // ==================== FRACTIONAL KNAPSACK ALGORITHMS ====================
+    
+    /**
+     * Greedy Strategy 1: Highest value-to-weight ratio first (Optimal for Fractional)
+     */
+    public static Result fractionalKnapsackByRatio(Dataset dataset) {
+        Result result = new Result("Fractional - Greedy by Ratio", dataset);
+        long phaseStart = Metrics.now();
+        List<Item> items = dataset.getItemsCopy();
+        phaseStart = Metrics.phase(result, "copy", phaseStart);
+        
+        long startTime = System.nanoTime();
+        
+        // Sort by ratio in descending order
+        Collections.sort(items);
+        phaseStart = Metrics.phase(result, "sort", phaseStart);
+        
+        double remainingCapacity = dataset.capacity;
+        
+        for (Item item : items) {
+            if (remainingCapacity == 0 && item.weight > 0) break; // zero-weight items still fit
+            
+            if (item.weight <= remainingCapacity) {
+                // Take whole item
+                result.totalValue += item.value;
+                result.totalWeight += item.weight;
+                result.selectedItems.add(item.id);
+                remainingCapacity -= item.weight;
+            } else {
+                // Take fraction of item
+                double fraction = remainingCapacity / item.weight;
+                result.totalValue += item.value * fraction;
+                result.totalWeight += remainingCapacity;
+                result.selectedItems.add(item.id);
+                break;
+            }
+        }
+        
+        Metrics.phase(result, "scan", phaseStart);
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * Greedy Strategy 2: Highest absolute value first (Fractional)
+     */
+    public static Result fractionalKnapsackByValue(Dataset dataset) {
+        Result result = new Result("Fractional - Greedy by Value", dataset);
+        long phaseStart = Metrics.now();
+        List<Item> items = dataset.getItemsCopy();
+        phaseStart = Metrics.phase(result, "copy", phaseStart);
+        
+        long startTime = System.nanoTime();
+        
+        // Sort by value in descending order
+        items.sort((a, b) -> Integer.compare(b.value, a.value));
+        phaseStart = Metrics.phase(result, "sort", phaseStart);
+        
+        double remainingCapacity = dataset.capacity;
+        
+        for (Item item : items) {
+            if (remainingCapacity == 0 && item.weight > 0) break; // zero-weight items still fit
+            
+            if (item.weight <= remainingCapacity) {
+                result.totalValue += item.value;
+                result.totalWeight += item.weight;
+                result.selectedItems.add(item.id);
+                remainingCapacity -= item.weight;
+            } else {
+                double fraction = remainingCapacity / item.weight;
+                result.totalValue += item.value * fraction;
+                result.totalWeight += remainingCapacity;
+                result.selectedItems.add(item.id);
+                break;
+            }
+        }
+        
+        Metrics.phase(result, "scan", phaseStart);
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * Greedy Strategy 3: Lowest weight first (Fractional)
+     */
+    public static Result fractionalKnapsackByWeight(Dataset dataset) {
+        Result result = new Result("Fractional - Greedy by Lowest Weight", dataset);
+        long phaseStart = Metrics.now();
+        List<Item> items = dataset.getItemsCopy();
+        phaseStart = Metrics.phase(result, "copy", phaseStart);
+        
+        long startTime = System.nanoTime();
+        
+        // Sort by weight in ascending order
+        items.sort((a, b) -> Integer.compare(a.weight, b.weight));
+        phaseStart = Metrics.phase(result, "sort", phaseStart);
+        
+        double remainingCapacity = dataset.capacity;
+        
+        for (Item item : items) {
+            if (remainingCapacity == 0 && item.weight > 0) break; // zero-weight items still fit
+            
+            if (item.weight <= remainingCapacity) {
+                result.totalValue += item.value;
+                result.totalWeight += item.weight;
+                result.selectedItems.add(item.id);
+                remainingCapacity -= item.weight;
+            } else {
+                double fraction = remainingCapacity / item.weight;
+                result.totalValue += item.value * fraction;
+                result.totalWeight += remainingCapacity;
+                result.selectedItems.add(item.id);
+                break;
+            }
+        }
+        
+        Metrics.phase(result, "scan", phaseStart);
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    // ==================== 0-1 KNAPSACK ALGORITHMS ====================
+    
+    /**
+     * 0-1 Knapsack - Greedy Strategy 1: Highest value-to-weight ratio first
+     */
+    public static Result zeroOneKnapsackByRatio(Dataset dataset) {
+        Result result = new Result("0-1 Knapsack - Greedy by Ratio", dataset);
+        long phaseStart = Metrics.now();
+        List<Item> items = dataset.getItemsCopy();
+        phaseStart = Metrics.phase(result, "copy", phaseStart);
+        
+        long startTime = System.nanoTime();
+        
+        Collections.sort(items);
+        phaseStart = Metrics.phase(result, "sort", phaseStart);
+        
+        int remainingCapacity = dataset.capacity;
+        
+        for (Item item : items) {
+            if (item.weight <= remainingCapacity) {
+                result.totalValue += item.value;
+                result.totalWeight += item.weight;
+                result.selectedItems.add(item.id);
+                remainingCapacity -= item.weight;
+            }
+        }
+        
+        Metrics.phase(result, "scan", phaseStart);
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * 0-1 Knapsack - Greedy Strategy 2: Highest absolute value first
+     */
+    public static Result zeroOneKnapsackByValue(Dataset dataset) {
+        Result result = new Result("0-1 Knapsack - Greedy by Value", dataset);
+        long phaseStart = Metrics.now();
+        List<Item> items = dataset.getItemsCopy();
+        phaseStart = Metrics.phase(result, "copy", phaseStart);
+        
+        long startTime = System.nanoTime();
+        
+        items.sort((a, b) -> Integer.compare(b.value, a.value));
+        phaseStart = Metrics.phase(result, "sort", phaseStart);
+        
+        int remainingCapacity = dataset.capacity;
+        
+        for (Item item : items) {
+            if (item.weight <= remainingCapacity) {
+                result.totalValue += item.value;
+                result.totalWeight += item.weight;
+                result.selectedItems.add(item.id);
+                remainingCapacity -= item.weight;
+            }
+        }
+        
+        Metrics.phase(result, "scan", phaseStart);
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * 0-1 Knapsack - Greedy Strategy 3: Lowest weight first
+     */
+    public static Result zeroOneKnapsackByWeight(Dataset dataset) {
+        Result result = new Result("0-1 Knapsack - Greedy by Lowest Weight", dataset);
+        long phaseStart = Metrics.now();
+        List<Item> items = dataset.getItemsCopy();
+        phaseStart = Metrics.phase(result, "copy", phaseStart);
+        
+        long startTime = System.nanoTime();
+        
+        items.sort((a, b) -> Integer.compare(a.weight, b.weight));
+        phaseStart = Metrics.phase(result, "sort", phaseStart);
+        
+        int remainingCapacity = dataset.capacity;
+        
+        for (Item item : items) {
+            if (item.weight <= remainingCapacity) {
+                result.totalValue += item.value;
+                result.totalWeight += item.weight;
+                result.selectedItems.add(item.id);
+                remainingCapacity -= item.weight;
+            }
+        }
+        
+        Metrics.phase(result, "scan", phaseStart);
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * Randomized Strategy 1: Random Sampling Approach
+     */
+    public static Result randomSamplingKnapsack(Dataset dataset, RandomGenerator rand) {
+        Result result = new Result("0-1 Knapsack - Random Sampling", dataset);
+        long phaseStart = Metrics.now();
+        List<Item> items = dataset.getItemsCopy();
+        phaseStart = Metrics.phase(result, "copy", phaseStart);
+        
+        long startTime = System.nanoTime();
+        
+        // Shuffle items randomly, same swaps as Collections.shuffle
+        for (int i = items.size(); i > 1; i--) {
+            Collections.swap(items, i - 1, rand.nextInt(i));
+        }
+        phaseStart = Metrics.phase(result, "shuffle", phaseStart);
+        
+        int remainingCapacity = dataset.capacity;
+        
+        for (Item item : items) {
+            if (item.weight <= remainingCapacity) {
+                result.totalValue += item.value;
+                result.totalWeight += item.weight;
+                result.selectedItems.add(item.id);
+                remainingCapacity -= item.weight;
+            }
+        }
+        
+        Metrics.phase(result, "scan", phaseStart);
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    public static Result randomSamplingKnapsack(Dataset dataset, SeededRandom rng) {
+        return rng.record(randomSamplingKnapsack(dataset, rng.generator()));
+    }
+    
+    /**
+     * Randomized Strategy 2: Monte Carlo Approximation 1
+     * Run multiple trials of random selection, keep the best solution
+     */
+    public static Result monteCarloKnapsack1(Dataset dataset, int trials) {
+        return monteCarloKnapsack1(dataset, trials, SeededRandom.create());
+    }
+    
+    public static Result monteCarloKnapsack1(Dataset dataset, int trials, SeededRandom rng) {
+        Result bestResult = rng.record(new Result("0-1 Knapsack - Monte Carlo 1", dataset));
+        
+        long startTime = System.nanoTime();
+        RandomGenerator rand = rng.generator();
+        
+        ColumnarDataset data = dataset.columnar();
+        TrialEngine engine = new TrialEngine(data.weights, data.values,
+                                             allPositions(dataset.n), dataset.capacity);
+        runTrials(engine, trials, rand, bestResult, startTime);
+        
+        bestResult.executionTime = System.nanoTime() - startTime;
+        return bestResult;
+    }
+    
+    /**
+     * Randomized Strategy 3: Monte Carlo Approximation 2
+     * Run multiple trials among best value items
+     */
+    public static Result monteCarloKnapsack2(Dataset dataset, int trials) {
+        return monteCarloKnapsack2(dataset, trials, SeededRandom.create());
+    }
+    
+    public static Result monteCarloKnapsack2(Dataset dataset, int trials, SeededRandom rng) {
+        Result bestResult = rng.record(new Result("0-1 Knapsack - Monte Carlo 2", dataset));
+        
+        long startTime = System.nanoTime();
+        RandomGenerator rand = rng.generator();
+        
+        ColumnarDataset data = dataset.columnar();
+        TrialEngine engine = new TrialEngine(data.weights, data.values,
+                                             topValuePositions(data), dataset.capacity);
+        runTrials(engine, trials, rand, bestResult, startTime);
+        
+        bestResult.executionTime = System.nanoTime() - startTime;
+        return bestResult;
+    }
+    
+    // Runs the trials sequentially, copying into the result only on improvement
+    private static void runTrials(TrialEngine engine, int trials, RandomGenerator rand, Result bestResult,
+                                  long startTime) {
+        long phaseStart = Metrics.phase(bestResult, "setup", startTime);
+        LatencyHistogram latencies = (phaseStart != 0) ? new LatencyHistogram() : null;
+        
+        for (int t = 0; t < trials; t++) {
+            long trialStart = (latencies != null) ? System.nanoTime() : 0;
+            long trialValue = engine.runTrial(rand);
+            if (latencies != null) latencies.record(System.nanoTime() - trialStart);
+            
+            // Keep best solution
+            if (trialValue > bestResult.totalValue) {
+                bestResult.totalValue = trialValue;
+                bestResult.totalWeight = engine.trialWeight;
+                engine.copySelectionTo(bestResult.selectedItems);
+                bestResult.improvements++;
+                bestResult.timeToBestNanos = System.nanoTime() - startTime;
+            }
+        }
+        
+        bestResult.trials += Math.max(trials, 0);
+        Metrics.phase(bestResult, "trials", phaseStart);
+        Metrics.trialLatencies(bestResult, latencies);
+    }
+    
+    // Positions 0..n-1 of every item
+    static int[] allPositions(int n) {
+        int[] positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+    
+    // Share of items, by value, that Monte Carlo 2 samples from
+    static final double MC2_TOP_FRACTION = 0.7;
+    
+    // Positions of the top 70% of items by value, cached on the dataset's column view
+    static int[] topValuePositions(Dataset dataset) {
+        return topValuePositions(dataset.columnar());
+    }
+    
+    static int[] topValuePositions(ColumnarDataset data) {
+        return data.topValuePositions(MC2_TOP_FRACTION);
+    }
+    
+    // ==================== SEEDED RANDOMNESS ====================
+    
+    /**
+     * A generator algorithm (any RandomGeneratorFactory name) and a seed. Every call to
+     * generator() restarts the same sequence, so a Result carrying both replays exactly.
+     * -Dknapsack.rng picks the default algorithm, -Dknapsack.seed pins the seed of unseeded runs.
+     */
+    static final class SeededRandom {
+        static final String DEFAULT_ALGORITHM = System.getProperty("knapsack.rng", "L64X128MixRandom");
+        private static final Long FIXED_SEED = Long.getLong("knapsack.seed");
+        
+        final String algorithm;
+        final long seed;
+        private final RandomGeneratorFactory<RandomGenerator> factory;
+        
+        // Throws IllegalArgumentException for an unknown algorithm
+        static SeededRandom of(String algorithm, long seed) {
+            return new SeededRandom(algorithm, seed);
+        }
+        
+        static SeededRandom of(long seed) {
+            return of(DEFAULT_ALGORITHM, seed);
+        }
+        
+        // The -Dknapsack.seed seed if set, otherwise a fresh one that is recorded all the same
+        static SeededRandom create() {
+            return of((FIXED_SEED != null) ? FIXED_SEED : ThreadLocalRandom.current().nextLong());
+        }
+        
+        private SeededRandom(String algorithm, long seed) {
+            this.factory = RandomGeneratorFactory.of(algorithm);
+            this.algorithm = factory.name();
+            this.seed = seed;
+        }
+        
+        // A new generator at the start of this seed's sequence
+        RandomGenerator generator() {
+            return factory.create(seed);
+        }
+        
+        // Independent generators in a fixed order: split off the root when the
+        // algorithm is splittable, otherwise seeded from the root's output
+        RandomGenerator[] streams(int count) {
+            RandomGenerator root = generator();
+            RandomGenerator[] streams = new RandomGenerator[count];
+            for (int i = 0; i < count; i++) {
+                streams[i] = (root instanceof RandomGenerator.SplittableGenerator splittable)
+                             ? splittable.split() : factory.create(root.nextLong());
+            }
+            return streams;
+        }
+        
+        Result record(Result result) {
+            result.generator = algorithm;
+            result.seed = seed;
+            return result;
+        }
+        
+        @Override
+        public String toString() {
+            return algorithm + ", seed " + seed;
+        }
+    }
+    
+    // ==================== MONTE CARLO TRIAL ENGINE ====================
+    
+    /**
+     * Reusable state for allocation-free Monte Carlo trials.
+     * Item data is shared read-only; the permutation and the selection bitset
+     * belong to one engine and are rewritten in place on every trial.
+     * An item at position p has id p + 1.
+     */
+    static class TrialEngine {
+        final int[] weights;
+        final int[] values;
+        final int[] candidates; // original candidate order
+        final int[] order;      // candidate positions, shuffled in place
+        final long[] selection; // bitset over item positions for the last trial
+        final int capacity;
+        long trialValue;
+        long trialWeight;
+        
+        TrialEngine(int[] weights, int[] values, int[] candidates, int capacity) {
+            this.weights = weights;
+            this.values = values;
+            this.candidates = candidates;
+            this.order = candidates.clone();
+            this.selection = new long[(weights.length + 63) >>> 6];
+            this.capacity = capacity;
+        }
+        
+        // Restores the candidate order, so a trial sequence only depends on the RNG
+        void reset() {
+            System.arraycopy(candidates, 0, order, 0, order.length);
+        }
+        
+        // Fisher-Yates shuffle of the permutation, same scheme as Collections.shuffle
+        void shuffle(RandomGenerator rand) {
+            int[] order = this.order;
+            for (int i = order.length; i > 1; i--) {
+                int j = rand.nextInt(i);
+                int tmp = order[i - 1];
+                order[i - 1] = order[j];
+                order[j] = tmp;
+            }
+        }
+        
+        // Shuffles the permutation and fills the knapsack in that order; returns the value
+        long runTrial(RandomGenerator rand) {
+            shuffle(rand);
+            
+            Arrays.fill(selection, 0L);
+            long value = 0;
+            int remainingCapacity = capacity;
+            for (int p : order) {
+                int weight = weights[p];
+                if (weight <= remainingCapacity) {
+                    value += values[p];
+                    remainingCapacity -= weight;
+                    selection[p >>> 6] |= 1L << p;
+                }
+            }
+            
+            trialValue = value;
+            trialWeight = capacity - remainingCapacity;
+            return value;
+        }
+        
+        // Replaces the contents of ids with the ids selected by the last trial
+        void copySelectionTo(List<Integer> ids) {
+            ids.clear();
+            addSelectedIds(selection, ids);
+        }
+    }
+    
+    // Appends the id (position + 1) of every bit set in selection
+    static void addSelectedIds(long[] selection, List<Integer> ids) {
+        for (int w = 0; w < selection.length; w++) {
+            long bits = selection[w];
+            while (bits != 0) {
+                ids.add((w << 6) + Long.numberOfTrailingZeros(bits) + 1);
+                bits &= bits - 1;
+            }
+        }
+    }
+    
+    // ==================== ANYTIME MONTE CARLO ====================
+    
+    /**
+     * Anytime Monte Carlo search: runs trials until the time budget, a stagnation
+     * limit, a gap target or a trial limit is reached, or until cancelled.
+     * The incumbent can be polled from other threads, and listeners are told about
+     * every improvement as it happens.
+     */
+    static class AnytimeSearch {
+        final String strategyName;
+        final ColumnarDataset data;
+        final int[] candidates;
+        
+        // Stopping criteria; the defaults never trigger
+        long timeBudgetNanos = Long.MAX_VALUE;
+        long stagnationTrials = Long.MAX_VALUE; // trials in a row without improvement
+        double gapTarget = 0;                   // stop once (upper bound - best) / upper bound <= gapTarget
+        long maxTrials = Long.MAX_VALUE;
+        
+        private final List<Consumer<Result>> listeners = new CopyOnWriteArrayList<>();
+        private volatile Result incumbent;
+        private volatile long trialsCompleted;
+        private volatile boolean cancelled;
+        volatile String stopReason;
+        
+        AnytimeSearch(String strategyName, ColumnarDataset data, int[] candidates) {
+            this.strategyName = strategyName;
+            this.data = data;
+            this.candidates = candidates;
+            this.incumbent = new Result(strategyName, data);
+        }
+        
+        // Trials over every item, like Monte Carlo 1
+        static AnytimeSearch monteCarlo1(ColumnarDataset data) {
+            return new AnytimeSearch("0-1 Knapsack - Anytime Monte Carlo 1", data, allPositions(data.n));
+        }
+        
+        // Trials over the top 70% of items by value, like Monte Carlo 2
+        static AnytimeSearch monteCarlo2(ColumnarDataset data) {
+            return new AnytimeSearch("0-1 Knapsack - Anytime Monte Carlo 2", data, topValuePositions(data));
+        }
+        
+        void onImprovement(Consumer<Result> listener) {
+            listeners.add(listener);
+        }
+        
+        // Best solution so far; safe to call from any thread while the search runs
+        Result best() {
+            return incumbent;
+        }
+        
+        long trialsCompleted() {
+            return trialsCompleted;
+        }
+        
+        void cancel() {
+            cancelled = true;
+        }
+        
+        // Runs the search on another thread; the future completes with the final incumbent
+        CompletableFuture<Result> start(Executor executor, RandomGenerator rand) {
+            return CompletableFuture.supplyAsync(() -> run(rand), executor);
+        }
+        
+        // Runs the search on the calling thread and returns the final incumbent
+        Result run(RandomGenerator rand) {
+            long startTime = System.nanoTime();
+            long deadline = deadlineAfter(startTime, timeBudgetNanos);
+            
+            // The fractional-ratio value bounds every 0-1 solution
+            double upperBound = Math.floor(fractionalKnapsackByRatioLinear(data).totalValue);
+            
+            TrialEngine engine = new TrialEngine(data.weights, data.values, candidates, data.capacity);
+            long bestValue = 0;
+            long sinceImprovement = 0;
+            long trials = 0;
+            int improvements = 0;
+            LatencyHistogram latencies = Metrics.enabled ? new LatencyHistogram() : null;
+            
+            while (true) {
+                if (cancelled) {
+                    stopReason = "cancelled";
+                    break;
+                }
+                if (trials >= maxTrials) {
+                    stopReason = "trial limit";
+                    break;
+                }
+                if (System.nanoTime() >= deadline) {
+                    stopReason = "time budget";
+                    break;
+                }
+                if (sinceImprovement >= stagnationTrials) {
+                    stopReason = "stagnation";
+                    break;
+                }
+                if (upperBound > 0 && (upperBound - bestValue) / upperBound <= gapTarget) {
+                    stopReason = "gap target";
+                    break;
+                }
+                
+                long trialStart = (latencies != null) ? System.nanoTime() : 0;
+                long trialValue = engine.runTrial(rand);
+                if (latencies != null) latencies.record(System.nanoTime() - trialStart);
+                trials++;
+                sinceImprovement++;
+                trialsCompleted = trials;
+                
+                if (trialValue > bestValue) {
+                    bestValue = trialValue;
+                    sinceImprovement = 0;
+                    improvements++;
+                    
+                    // Publish a fresh snapshot; readers never see a half-written result
+                    Result improved = new Result(strategyName, data);
+                    improved.totalValue = trialValue;
+                    improved.totalWeight = engine.trialWeight;
+                    engine.copySelectionTo(improved.selectedItems);
+                    improved.executionTime = System.nanoTime() - startTime; // time to this solution
+                    incumbent = improved;
+                    for (Consumer<Result> listener : listeners) {
+                        listener.accept(improved);
+                    }
+                }
+            }
+            
+            // Snapshots keep their time to solution; the returned copy carries the total time
+            Result best = incumbent;
+            Result result = new Result(strategyName, data);
+            result.totalValue = best.totalValue;
+            result.totalWeight = best.totalWeight;
+            result.selectedItems = new ArrayList<>(best.selectedItems);
+            result.trials = trials;
+            result.improvements = improvements;
+            result.timeToBestNanos = (improvements > 0) ? best.executionTime : -1;
+            result.executionTime = System.nanoTime() - startTime;
+            Metrics.trialLatencies(result, latencies);
+            return result;
+        }
+    }
+    
+    /**
+     * Monte Carlo 1 under a time budget instead of a trial count.
+     * stagnationTrials stops early after that many trials without improvement.
+     */
+    public static Result monteCarloKnapsack1(ColumnarDataset data, long timeBudgetNanos, long stagnationTrials) {
+        return monteCarloKnapsack1(data, timeBudgetNanos, stagnationTrials, SeededRandom.create());
+    }
+    
+    public static Result monteCarloKnapsack1(ColumnarDataset data, long timeBudgetNanos, long stagnationTrials,
+                                             SeededRandom rng) {
+        AnytimeSearch search = AnytimeSearch.monteCarlo1(data);
+        search.timeBudgetNanos = timeBudgetNanos;
+        search.stagnationTrials = stagnationTrials;
+        return rng.record(search.run(rng.generator()));
+    }
+    
+    /**
+     * Monte Carlo 2 under a time budget instead of a trial count.
+     * stagnationTrials stops early after that many trials without improvement.
+     */
+    public static Result monteCarloKnapsack2(ColumnarDataset data, long timeBudgetNanos, long stagnationTrials) {
+        return monteCarloKnapsack2(data, timeBudgetNanos, stagnationTrials, SeededRandom.create());
+    }
+    
+    public static Result monteCarloKnapsack2(ColumnarDataset data, long timeBudgetNanos, long stagnationTrials,
+                                             SeededRandom rng) {
+        AnytimeSearch search = AnytimeSearch.monteCarlo2(data);
+        search.timeBudgetNanos = timeBudgetNanos;
+        search.stagnationTrials = stagnationTrials;
+        return rng.record(search.run(rng.generator()));
+    }
+    
+    // ==================== PARALLEL MONTE CARLO ====================
+    
+    // Trials are grouped into fixed-size chunks, each with its own RNG stream,
+    // so a given seed produces the same answer regardless of the worker count
+    static final int MC_CHUNK_TRIALS = 64;
+    
+    // Best trial found by a chunk (or a merged range of chunks)
+    static class TrialBest {
+        long value;
+        long weight;
+        long[] selection; // bitset over item positions, null until a trial improves on 0
+        long trial = Long.MAX_VALUE; // global trial index, used to break ties
+        
+        // Higher value wins; on equal value the earlier trial wins, like the sequential loop
+        TrialBest merge(TrialBest other) {
+            if (other.value > value || (other.value == value && other.trial < trial)) {
+                return other;
+            }
+            return this;
+        }
+    }
+    
+    static class MonteCarloTask extends RecursiveTask<TrialBest> {
+        private static final long serialVersionUID = 1L;
+        
+        final int[] weights;
+        final int[] values;
+        final int[] candidates;
+        final int capacity;
+        final RandomGenerator[] streams;
+        final int trials;
+        final int chunksPerLeaf;
+        final int fromChunk;
+        final int toChunk;
+        
+        MonteCarloTask(int[] weights, int[] values, int[] candidates, int capacity,
+                       RandomGenerator[] streams, int trials, int chunksPerLeaf,
+                       int fromChunk, int toChunk) {
+            this.weights = weights;
+            this.values = values;
+            this.candidates = candidates;
+            this.capacity = capacity;
+            this.streams = streams;
+            this.trials = trials;
+            this.chunksPerLeaf = chunksPerLeaf;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+        
+        @Override
+        protected TrialBest compute() {
+            if (toChunk - fromChunk <= chunksPerLeaf) {
+                return runChunks();
+            }
+            int mid = (fromChunk + toChunk) >>> 1;
+            MonteCarloTask left = new MonteCarloTask(weights, values, candidates, capacity, streams,
+                                                     trials, chunksPerLeaf, fromChunk, mid);
+            MonteCarloTask right = new MonteCarloTask(weights, values, candidates, capacity, streams,
+                                                      trials, chunksPerLeaf, mid, toChunk);
+            left.fork();
+            TrialBest rightBest = right.compute();
+            return left.join().merge(rightBest);
+        }
+        
+        // One engine per leaf, reset at every chunk boundary
+        private TrialBest runChunks() {
+            TrialEngine engine = new TrialEngine(weights, values, candidates, capacity);
+            TrialBest best = new TrialBest();
+            
+            for (int chunk = fromChunk; chunk < toChunk; chunk++) {
+                RandomGenerator rand = streams[chunk];
+                engine.reset();
+                
+                long firstTrial = (long) chunk * MC_CHUNK_TRIALS;
+                long lastTrial = Math.min(firstTrial + MC_CHUNK_TRIALS, trials);
+                
+                for (long t = firstTrial; t < lastTrial; t++) {
+                    long trialValue = engine.runTrial(rand);
+                    if (trialValue > best.value) {
+                        best.value = trialValue;
+                        best.weight = engine.trialWeight;
+                        best.trial = t;
+                        best.selection = engine.selection.clone();
+                    }
+                }
+            }
+            return best;
+        }
+    }
+    
+    /**
+     * Monte Carlo 1 split across worker threads.
+     * workers <= 0 runs on the common ForkJoinPool.
+     */
+    public static Result parallelMonteCarloKnapsack1(Dataset dataset, int trials, long seed, int workers) {
+        return parallelMonteCarloKnapsack1(dataset, trials, SeededRandom.of(seed), workers);
+    }
+    
+    public static Result parallelMonteCarloKnapsack1(Dataset dataset, int trials, SeededRandom rng, int workers) {
+        return parallelMonteCarlo("0-1 Knapsack - Parallel Monte Carlo 1", dataset,
+                                  allPositions(dataset.n), trials, rng, workers);
+    }
+    
+    /**
+     * Monte Carlo 2 split across worker threads (top 70% of items by value).
+     * workers <= 0 runs on the common ForkJoinPool.
+     */
+    public static Result parallelMonteCarloKnapsack2(Dataset dataset, int trials, long seed, int workers) {
+        return parallelMonteCarloKnapsack2(dataset, trials, SeededRandom.of(seed), workers);
+    }
+    
+    public static Result parallelMonteCarloKnapsack2(Dataset dataset, int trials, SeededRandom rng, int workers) {
+        return parallelMonteCarlo("0-1 Knapsack - Parallel Monte Carlo 2", dataset,
+                                  topValuePositions(dataset), trials, rng, workers);
+    }
+    
+    private static Result parallelMonteCarlo(String strategyName, Dataset dataset, int[] candidates,
+                                             int trials, SeededRandom rng, int workers) {
+        Result bestResult = rng.record(new Result(strategyName, dataset));
+        if (trials <= 0) return bestResult;
+        
+        long startTime = System.nanoTime();
+        
+        // One stream per chunk, derived in a fixed order from the seed
+        int chunks = (int) ((trials + (long) MC_CHUNK_TRIALS - 1) / MC_CHUNK_TRIALS);
+        RandomGenerator[] streams = rng.streams(chunks);
+        
+        ForkJoinPool pool = (workers <= 0) ? ForkJoinPool.commonPool() : new ForkJoinPool(workers);
+        // A few leaves per worker keeps the pool balanced without an engine per chunk
+        int chunksPerLeaf = Math.max(1, chunks / (pool.getParallelism() * 4));
+        ColumnarDataset data = dataset.columnar();
+        MonteCarloTask task = new MonteCarloTask(data.weights, data.values, candidates, dataset.capacity,
+                                                 streams, trials, chunksPerLeaf, 0, chunks);
+        TrialBest best;
+        try {
+            best = pool.invoke(task);
+        } finally {
+            if (workers > 0) pool.shutdown();
+        }
+        
+        bestResult.totalValue = best.value;
+        bestResult.totalWeight = best.weight;
+        if (best.selection != null) {
+            addSelectedIds(best.selection, bestResult.selectedItems);
+        }
+        bestResult.trials = trials;
+        bestResult.executionTime = System.nanoTime() - startTime;
+        return bestResult;
+    }
+    
+    // ==================== COLUMNAR STRATEGIES ====================
+    
+    // The nine strategies over a ColumnarDataset. Orderings come from the dataset's
+    // cache, so only the first strategy using a given order pays for the sort.
+    
+    public static Result fractionalKnapsackByRatio(ColumnarDataset data) {
+        long startTime = System.nanoTime();
+        return fractionalScan("Fractional - Greedy by Ratio", data, data.orderByRatio(), startTime);
+    }
+    
+    public static Result fractionalKnapsackByValue(ColumnarDataset data) {
+        long startTime = System.nanoTime();
+        return fractionalScan("Fractional - Greedy by Value", data, data.orderByValue(), startTime);
+    }
+    
+    public static Result fractionalKnapsackByWeight(ColumnarDataset data) {
+        long startTime = System.nanoTime();
+        return fractionalScan("Fractional - Greedy by Lowest Weight", data, data.orderByWeight(), startTime);
+    }
+    
+    public static Result zeroOneKnapsackByRatio(ColumnarDataset data) {
+        long startTime = System.nanoTime();
+        return zeroOneScan("0-1 Knapsack - Greedy by Ratio", data, data.orderByRatio(), startTime);
+    }
+    
+    public static Result zeroOneKnapsackByValue(ColumnarDataset data) {
+        long startTime = System.nanoTime();
+        return zeroOneScan("0-1 Knapsack - Greedy by Value", data, data.orderByValue(), startTime);
+    }
+    
+    public static Result zeroOneKnapsackByWeight(ColumnarDataset data) {
+        long startTime = System.nanoTime();
+        return zeroOneScan("0-1 Knapsack - Greedy by Lowest Weight", data, data.orderByWeight(), startTime);
+    }
+    
+    public static Result randomSamplingKnapsack(ColumnarDataset data, RandomGenerator rand) {
+        Result result = new Result("0-1 Knapsack - Random Sampling", data);
+        
+        long startTime = System.nanoTime();
+        
+        // A single trial shuffles exactly like Collections.shuffle on the item list
+        TrialEngine engine = new TrialEngine(data.weights, data.values, allPositions(data.n), data.capacity);
+        result.totalValue = engine.runTrial(rand);
+        result.totalWeight = engine.trialWeight;
+        engine.copySelectionTo(result.selectedItems);
+        
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    public static Result randomSamplingKnapsack(ColumnarDataset data, SeededRandom rng) {
+        return rng.record(randomSamplingKnapsack(data, rng.generator()));
+    }
+    
+    public static Result monteCarloKnapsack1(ColumnarDataset data, int trials) {
+        return monteCarloKnapsack1(data, trials, SeededRandom.create());
+    }
+    
+    public static Result monteCarloKnapsack1(ColumnarDataset data, int trials, SeededRandom rng) {
+        Result bestResult = rng.record(new Result("0-1 Knapsack - Monte Carlo 1", data));
+        
+        long startTime = System.nanoTime();
+        RandomGenerator rand = rng.generator();
+        
+        TrialEngine engine = new TrialEngine(data.weights, data.values, allPositions(data.n), data.capacity);
+        runTrials(engine, trials, rand, bestResult, startTime);
+        
+        bestResult.executionTime = System.nanoTime() - startTime;
+        return bestResult;
+    }
+    
+    public static Result monteCarloKnapsack2(ColumnarDataset data, int trials) {
+        return monteCarloKnapsack2(data, trials, SeededRandom.create());
+    }
+    
+    public static Result monteCarloKnapsack2(ColumnarDataset data, int trials, SeededRandom rng) {
+        Result bestResult = rng.record(new Result("0-1 Knapsack - Monte Carlo 2", data));
+        
+        long startTime = System.nanoTime();
+        RandomGenerator rand = rng.generator();
+        
+        TrialEngine engine = new TrialEngine(data.weights, data.values, topValuePositions(data), data.capacity);
+        runTrials(engine, trials, rand, bestResult, startTime);
+        
+        bestResult.executionTime = System.nanoTime() - startTime;
+        return bestResult;
+    }
+    
+    // Takes whole items in the given order, then a fraction of the first one that does not fit
+    private static Result fractionalScan(String strategyName, ColumnarDataset data, int[] order, long startTime) {
+        Result result = new Result(strategyName, data);
+        long phaseStart = Metrics.phase(result, "sort", startTime); // a cache hit once the order is built
+        double remainingCapacity = data.capacity;
+        
+        for (int p : order) {
+            int weight = data.weights[p];
+            if (remainingCapacity == 0 && weight > 0) break; // zero-weight items still fit
+            
+            if (weight <= remainingCapacity) {
+                result.totalValue += data.values[p];
+                result.totalWeight += weight;
+                result.selectedItems.add(p + 1);
+                remainingCapacity -= weight;
+            } else {
+                double fraction = remainingCapacity / weight;
+                result.totalValue += data.values[p] * fraction;
+                result.totalWeight += remainingCapacity;
+                result.selectedItems.add(p + 1);
+                break;
+            }
+        }
+        
+        Metrics.phase(result, "scan", phaseStart);
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    // Takes every item that still fits, in the given order
+    private static Result zeroOneScan(String strategyName, ColumnarDataset data, int[] order, long startTime) {
+        Result result = new Result(strategyName, data);
+        long phaseStart = Metrics.phase(result, "sort", startTime);
+        int remainingCapacity = data.capacity;
+        
+        for (int p : order) {
+            int weight = data.weights[p];
+            if (weight <= remainingCapacity) {
+                result.totalValue += data.values[p];
+                result.totalWeight += weight;
+                result.selectedItems.add(p + 1);
+                remainingCapacity -= weight;
+            }
+        }
+        
+        Metrics.phase(result, "scan", phaseStart);
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    // ==================== GREEDY ENSEMBLE ====================
+    
+    // The six greedy results of one instance and the best 0-1 packing among them
+    static class EnsembleResult {
+        final List<Result> results = new ArrayList<>(); // fractional ratio, value, weight, then 0-1 in that order
+        Result best;         // highest-value 0-1 result; the first wins ties
+        long executionTime;  // wall time of the whole ensemble
+    }
+    
+    // Orderings are sorted on separate threads only when there are cores to spare and enough items
+    static final int ENSEMBLE_PARALLEL_MIN_ITEMS = 1 << 16;
+    
+    /**
+     * Runs the fractional and 0-1 greedy strategies of all three criteria with one ordering
+     * and one scan per criterion; each result is identical to its single-strategy method.
+     * Uncached orderings of large instances are sorted concurrently.
+     */
+    public static EnsembleResult greedyEnsemble(ColumnarDataset data) {
+        long startTime = System.nanoTime();
+        String[] criteria = {"Ratio", "Value", "Lowest Weight"};
+        List<Supplier<Result[]>> scans = List.of(
+            () -> sharedScan(criteria[0], data, data.orderByRatio(), System.nanoTime()),
+            () -> sharedScan(criteria[1], data, data.orderByValue(), System.nanoTime()),
+            () -> sharedScan(criteria[2], data, data.orderByWeight(), System.nanoTime()));
+        
+        Result[][] pairs = new Result[scans.size()][];
+        if (data.n >= ENSEMBLE_PARALLEL_MIN_ITEMS && Runtime.getRuntime().availableProcessors() > 1) {
+            List<CompletableFuture<Result[]>> futures = new ArrayList<>();
+            for (Supplier<Result[]> scan : scans) {
+                futures.add(CompletableFuture.supplyAsync(scan));
+            }
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = futures.get(i).join();
+            }
+        } else {
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = scans.get(i).get();
+            }
+        }
+        
+        EnsembleResult ensemble = new EnsembleResult();
+        for (Result[] pair : pairs) {
+            ensemble.results.add(pair[0]);
+        }
+        for (Result[] pair : pairs) {
+            ensemble.results.add(pair[1]);
+            if (ensemble.best == null || pair[1].totalValue > ensemble.best.totalValue) {
+                ensemble.best = pair[1];
+            }
+        }
+        ensemble.executionTime = System.nanoTime() - startTime;
+        return ensemble;
+    }
+    
+    /**
+     * Fractional and 0-1 greedy in one pass over order. Both take the same whole items until
+     * the fractional scan stops (capacity used up, or an item that does not fit); from there
+     * the fractional result takes a part of that item and the 0-1 result keeps scanning.
+     * Returns {fractional, 0-1}; the fractional result's time ends where it stopped.
+     */
+    private static Result[] sharedScan(String criterion, ColumnarDataset data, int[] order, long startTime) {
+        Result fractional = new Result("Fractional - Greedy by " + criterion, data);
+        Result zeroOne = new Result("0-1 Knapsack - Greedy by " + criterion, data);
+        long phaseStart = Metrics.phase(zeroOne, "sort", startTime);
+        double remainingCapacity = data.capacity;
+        
+        int i = 0;
+        for (; i < order.length; i++) {
+            int p = order[i];
+            int weight = data.weights[p];
+            if (weight > remainingCapacity) break;
+            zeroOne.totalValue += data.values[p];
+            zeroOne.totalWeight += weight;
+            zeroOne.selectedItems.add(p + 1);
+            remainingCapacity -= weight;
+        }
+        
+        fractional.totalValue = zeroOne.totalValue;
+        fractional.totalWeight = zeroOne.totalWeight;
+        fractional.selectedItems.addAll(zeroOne.selectedItems);
+        if (i < order.length && remainingCapacity != 0) {
+            int p = order[i];
+            double fraction = remainingCapacity / data.weights[p];
+            fractional.totalValue += data.values[p] * fraction;
+            fractional.totalWeight += remainingCapacity;
+            fractional.selectedItems.add(p + 1);
+        }
+        fractional.executionTime = System.nanoTime() - startTime;
+        
+        for (; i < order.length; i++) {
+            int p = order[i];
+            int weight = data.weights[p];
+            if (weight <= remainingCapacity) {
+                zeroOne.totalValue += data.values[p];
+                zeroOne.totalWeight += weight;
+                zeroOne.selectedItems.add(p + 1);
+                remainingCapacity -= weight;
+            }
+        }
+        
+        Metrics.phase(zeroOne, "scan", phaseStart);
+        if (zeroOne.phaseNanos != null) {
+            fractional.phaseNanos = new LinkedHashMap<>(zeroOne.phaseNanos); // the phases are shared
+        }
+        zeroOne.executionTime = System.nanoTime() - startTime;
+        return new Result[] {fractional, zeroOne};
+    }
+    
+    // ==================== LINEAR-TIME FRACTIONAL KNAPSACK ====================
+    
+    // Items partitioned around the critical item of the ratio order: items[0..index) fit
+    // whole, items[index] is the first item that does not (index == items.length if all fit)
+    static class CriticalSplit {
+        int[] items;
+        int index;
+        long weightBefore;
+        long valueBefore;
+        long residual; // capacity left after the items before the critical one
+        
+        int criticalItem() {
+            return (index < items.length) ? items[index] : -1;
+        }
+    }
+    
+    /**
+     * Fractional Knapsack by ratio in expected O(n): finds the critical item by
+     * quickselect-style weighted partitioning (Balas-Zemel) instead of sorting.
+     * Same items and value as fractionalKnapsackByRatio; the selected ids are not in
+     * ratio order.
+     */
+    public static Result fractionalKnapsackByRatioLinear(Dataset dataset) {
+        return fractionalKnapsackByRatioLinear(dataset.columnar());
+    }
+    
+    public static Result fractionalKnapsackByRatioLinear(ColumnarDataset data) {
+        Result result = new Result("Fractional - Greedy by Ratio (Linear Time)", data);
+        
+        long startTime = System.nanoTime();
+        
+        CriticalSplit split = findCriticalItem(data, allPositions(data.n), data.capacity);
+        for (int i = 0; i < split.index; i++) {
+            result.selectedItems.add(split.items[i] + 1);
+        }
+        result.totalValue = split.valueBefore;
+        result.totalWeight = split.weightBefore;
+        
+        int critical = split.criticalItem();
+        if (critical >= 0 && split.residual > 0) {
+            double fraction = (double) split.residual / data.weights[critical];
+            result.totalValue += data.values[critical] * fraction;
+            result.totalWeight += split.residual;
+            result.selectedItems.add(critical + 1);
+        }
+        
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * Partitions a copy of positions around the critical item for the given capacity.
+     * Uses the same total order as orderByRatio (ratio descending, then position),
+     * so the split matches the sorted greedy exactly.
+     */
+    static CriticalSplit findCriticalItem(ColumnarDataset data, int[] positions, long capacity) {
+        int[] items = positions.clone();
+        double[] ratios = data.ratios;
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        
+        long residual = capacity;
+        long weightBefore = 0;
+        long valueBefore = 0;
+        int lo = 0;
+        int hi = items.length;
+        
+        while (lo < hi) {
+            // Move a random pivot to the end, then partition [lo, hi - 1) around it
+            swap(items, lo + rand.nextInt(hi - lo), hi - 1);
+            int pivot = items[hi - 1];
+            int store = lo;
+            long weightAhead = 0;
+            long valueAhead = 0;
+            for (int i = lo; i < hi - 1; i++) {
+                int p = items[i];
+                int cmp = Double.compare(ratios[pivot], ratios[p]);
+                if (cmp < 0 || (cmp == 0 && p < pivot)) {
+                    weightAhead += data.weights[p];
+                    valueAhead += data.values[p];
+                    swap(items, i, store++);
+                }
+            }
+            swap(items, store, hi - 1);
+            
+            if (weightAhead > residual) {
+                // The critical item is ahead of the pivot
+                hi = store;
+            } else if (weightAhead + data.weights[pivot] > residual) {
+                // The pivot is the critical item
+                weightBefore += weightAhead;
+                valueBefore += valueAhead;
+                residual -= weightAhead;
+                lo = store;
+                break;
+            } else {
+                // Everything up to and including the pivot fits
+                weightBefore += weightAhead + data.weights[pivot];
+                valueBefore += valueAhead + data.values[pivot];
+                residual -= weightAhead + data.weights[pivot];
+                lo = store + 1;
+            }
+        }
+        
+        CriticalSplit split = new CriticalSplit();
+        split.items = items;
+        split.index = lo;
+        split.weightBefore = weightBefore;
+        split.valueBefore = valueBefore;
+        split.residual = residual;
+        return split;
+    }
+    
+    private static void swap(int[] array, int i, int j) {
+        int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+    
+    // ==================== EXACT 0-1 KNAPSACK ====================
+    
+    // Largest bit table (one bit per item and capacity) used for direct reconstruction;
+    // bigger instances fall back to divide-and-conquer with O(capacity) memory
+    static final long DP_TABLE_BYTES = 64L << 20;
+    
+    // Capacities above this are out of reach for a pseudo-polynomial DP
+    static final int DP_MAX_CAPACITY = 1 << 28;
+    
+    /**
+     * 0-1 Knapsack - Exact Dynamic Programming
+     * Provides the optimum that the heuristics are compared against
+     */
+    public static Result exactKnapsackDP(Dataset dataset) {
+        return exactKnapsackDP(dataset.columnar());
+    }
+    
+    public static Result exactKnapsackDP(ColumnarDataset data) {
+        Result result = new Result("0-1 Knapsack - Exact DP", data);
+        
+        long startTime = System.nanoTime();
+        
+        long[] selection = solveReduced(data);
+        
+        for (int p = 0; p < data.n; p++) {
+            if ((selection[p >>> 6] & (1L << p)) != 0) {
+                result.totalValue += data.values[p];
+                result.totalWeight += data.weights[p];
+                result.selectedItems.add(p + 1);
+            }
+        }
+        
+        result.provenOptimal = true;
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * The optimal selection of the whole instance, from a DP over the items that
+     * reduced-cost fixing leaves open. The ratio greedy improved by local search gives a
+     * lower bound z; as in coreKnapsack, any better solution agrees with the break solution
+     * on every item whose reduced cost is above reducedCostThreshold, so those items are
+     * fixed and solveExact runs on the rest with the capacity the fixed items leave. If
+     * that cannot beat z, the bound solution is optimal.
+     */
+    static long[] solveReduced(ColumnarDataset data) {
+        long[] selection = new long[(data.n + 63) >>> 6];
+        
+        // Zero-weight items are always taken; items heavier than the knapsack never are
+        int capacity = data.capacity;
+        int m = 0;
+        int[] positions = new int[data.n];
+        for (int p = 0; p < data.n; p++) {
+            if (data.weights[p] == 0) {
+                if (data.values[p] > 0) selection[p >>> 6] |= 1L << p;
+            } else if (data.weights[p] <= capacity) {
+                positions[m++] = p;
+            }
+        }
+        positions = Arrays.copyOf(positions, m);
+        
+        CriticalSplit split = findCriticalItem(data, positions, capacity);
+        int b = split.criticalItem();
+        if (b < 0) {
+            // Everything fits
+            for (int p : positions) {
+                selection[p >>> 6] |= 1L << p;
+            }
+            return selection;
+        }
+        boolean[] inBreak = new boolean[data.n];
+        for (int i = 0; i < split.index; i++) {
+            inBreak[split.items[i]] = true;
+        }
+        
+        Result bound = withLocalSearch(data, zeroOneKnapsackByRatio(data));
+        long best = 0;
+        for (int id : bound.selectedItems) {
+            if (data.weights[id - 1] > 0) best += data.values[id - 1];
+        }
+        
+        long wb = data.weights[b];
+        long pb = data.values[b];
+        long threshold = reducedCostThreshold(split, best, wb, pb);
+        long[] fixed = new long[selection.length];
+        long fixedValue = 0;
+        int openCapacity = capacity;
+        int open = 0;
+        int[] openPositions = new int[m];
+        for (int p : positions) {
+            if (Math.abs(data.values[p] * wb - data.weights[p] * pb) <= threshold) {
+                openPositions[open++] = p;
+            } else if (inBreak[p]) {
+                fixed[p >>> 6] |= 1L << p;
+                fixedValue += data.values[p];
+                openCapacity -= data.weights[p];
+            }
+        }
+        
+        long value = fixedValue + solveExact(data.weights, data.values, Arrays.copyOf(openPositions, open),
+                                             openCapacity, fixed);
+        if (value > best) {
+            for (int w = 0; w < selection.length; w++) {
+                selection[w] |= fixed[w];
+            }
+        } else {
+            for (int id : bound.selectedItems) {
+                selection[(id - 1) >>> 6] |= 1L << (id - 1);
+            }
+        }
+        return selection;
+    }
+    
+    /**
+     * Exact optimum over the given item positions, using a single rolling array.
+     * Sets the bits of the chosen positions in selection and returns the optimal value.
+     */
+    static long solveExact(int[] weights, int[] values, int[] positions, int capacity, long[] selection) {
+        if (capacity < 0) return 0;
+        if (capacity > DP_MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity too large for dynamic programming: " + capacity);
+        }
+        
+        // Heaviest first: the weight still to come soon drops below the capacity,
+        // and from then on each row starts at capacity minus that weight
+        int[] kept = undominatedPositions(weights, values, positions, capacity);
+        int m = kept.length;
+        int[] order = new int[m];
+        long totalValue = 0;
+        for (int k = 0; k < m; k++) {
+            order[k] = kept[m - 1 - k];
+            totalValue += values[order[k]];
+        }
+        
+        // The table rows are int[]; half the memory traffic of long[]
+        if (totalValue > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Total value too large for dynamic programming: " + totalValue);
+        }
+        
+        return solveRange(weights, values, order, 0, m, capacity, selection);
+    }
+    
+    /**
+     * The positions that fit the capacity and that their dominators do not crowd out, by
+     * ascending weight. Item j dominates i when it is at least as valuable and comes first
+     * in (weight, -value, position) order. If i and all its dominators together outweigh
+     * the capacity, an optimum holding i leaves out a dominator and can trade i for it, so
+     * some optimum does without i.
+     */
+    static int[] undominatedPositions(int[] weights, int[] values, int[] positions, int capacity) {
+        int m = 0;
+        int[] items = new int[positions.length];
+        for (int p : positions) {
+            if (weights[p] <= capacity) items[m++] = p;
+        }
+        int[] byWeight = sortPositions(m, (x, y) -> {
+            int cmp = Integer.compare(weights[items[x]], weights[items[y]]);
+            if (cmp == 0) cmp = Integer.compare(values[items[y]], values[items[x]]);
+            return (cmp != 0) ? cmp : Integer.compare(items[x], items[y]);
+        });
+        
+        // Value ranks from 1 (most valuable); equal values share a rank
+        int[] itemValues = new int[m];
+        for (int i = 0; i < m; i++) {
+            itemValues[i] = values[items[i]];
+        }
+        int[] byValue = sortPositionsByKey(itemValues, true);
+        int[] rank = new int[m];
+        int ranks = 0;
+        for (int k = 0; k < m; k++) {
+            if (k == 0 || itemValues[byValue[k]] != itemValues[byValue[k - 1]]) ranks++;
+            rank[byValue[k]] = ranks;
+        }
+        
+        // Fenwick tree over the ranks: weight of the items seen so far at each value
+        long[] seenWeight = new long[ranks + 1];
+        int kept = 0;
+        int[] result = new int[m];
+        for (int i : byWeight) {
+            int p = items[i];
+            long dominators = 0;
+            for (int r = rank[i]; r > 0; r -= r & -r) {
+                dominators += seenWeight[r];
+            }
+            if (weights[p] + dominators <= capacity) result[kept++] = p;
+            for (int r = rank[i]; r <= ranks; r += r & -r) {
+                seenWeight[r] += weights[p];
+            }
+        }
+        return Arrays.copyOf(result, kept);
+    }
+    
+    // Solves items [lo, hi) of order exactly; divides the range in two while the bit table is too large
+    private static long solveRange(int[] weights, int[] values, int[] order, int lo, int hi,
+                                   int capacity, long[] selection) {
+        if (lo >= hi) return 0;
+        
+        long rowWords = (capacity >>> 6) + 1;
+        if ((hi - lo) * rowWords * 8 <= DP_TABLE_BYTES || hi - lo == 1) {
+            return solveWithBitTable(weights, values, order, lo, hi, capacity, selection);
+        }
+        
+        // Best value of each half for every capacity, then the best way to share the capacity
+        int mid = (lo + hi) >>> 1;
+        int[] left = dpValues(weights, values, order, lo, mid, capacity);
+        int[] right = dpValues(weights, values, order, mid, hi, capacity);
+        
+        int split = 0;
+        long best = -1;
+        for (int c = 0; c <= capacity; c++) {
+            long value = (long) left[c] + right[capacity - c];
+            if (value > best) {
+                best = value;
+                split = c;
+            }
+        }
+        left = null;
+        right = null;
+        
+        solveRange(weights, values, order, lo, mid, split, selection);
+        solveRange(weights, values, order, mid, hi, capacity - split, selection);
+        return best;
+    }
+    
+    // Rolling array of the best value for every capacity 0..capacity
+    private static int[] dpValues(int[] weights, int[] values, int[] order, int lo, int hi, int capacity) {
+        int[] dp = new int[capacity + 1];
+        for (int k = lo; k < hi; k++) {
+            int weight = weights[order[k]];
+            int value = values[order[k]];
+            for (int c = capacity; c >= weight; c--) {
+                int candidate = dp[c - weight] + value;
+                if (candidate > dp[c]) dp[c] = candidate;
+            }
+        }
+        return dp;
+    }
+    
+    // Rolling array plus one decision bit per item and capacity, walked backwards to recover the items
+    private static long solveWithBitTable(int[] weights, int[] values, int[] order, int lo, int hi,
+                                          int capacity, long[] selection) {
+        int rowWords = (capacity >>> 6) + 1;
+        int[] dp = new int[capacity + 1];
+        long[] taken = new long[(hi - lo) * rowWords];
+        
+        // Only dp[capacity] is read at the end, so after item k the capacities below
+        // capacity minus the weight of the items after k no longer matter
+        long remaining = 0;
+        for (int k = lo; k < hi; k++) {
+            remaining += weights[order[k]];
+        }
+        for (int k = lo; k < hi; k++) {
+            int weight = weights[order[k]];
+            int value = values[order[k]];
+            int row = (k - lo) * rowWords;
+            remaining -= weight;
+            int from = (int) Math.max(weight, capacity - remaining);
+            for (int c = capacity; c >= from; c--) {
+                int candidate = dp[c - weight] + value;
+                if (candidate > dp[c]) {
+                    dp[c] = candidate;
+                    taken[row + (c >>> 6)] |= 1L << c;
+                }
+            }
+        }
+        
+        int c = capacity;
+        for (int k = hi - 1; k >= lo; k--) {
+            int row = (k - lo) * rowWords;
+            if ((taken[row + (c >>> 6)] & (1L << c)) != 0) {
+                int p = order[k];
+                selection[p >>> 6] |= 1L << p;
+                c -= weights[p];
+            }
+        }
+        return dp[capacity];
+    }
+    
+    // ==================== BRANCH AND BOUND ====================
+    
+    // Nodes explored before the search pays for the cardinality root bound
+    static final long CARDINALITY_BOUND_NODES = 1 << 16;
+    
+    /**
+     * 0-1 Knapsack - Branch and Bound, starting from the greedy-by-ratio solution
+     * Stops when the node or time budget runs out and returns the best solution found so far
+     */
+    public static Result branchAndBoundKnapsack(Dataset dataset, long nodeBudget, long timeBudgetNanos) {
+        return branchAndBoundKnapsack(dataset.columnar(), nodeBudget, timeBudgetNanos);
+    }
+    
+    public static Result branchAndBoundKnapsack(ColumnarDataset data, long nodeBudget, long timeBudgetNanos) {
+        return branchAndBoundKnapsack(data, zeroOneKnapsackByRatio(data), nodeBudget, timeBudgetNanos);
+    }
+    
+    /**
+     * Depth-first branch and bound (Horowitz-Sahni) over the ratio order.
+     * Each node is bounded by the fractional-ratio (LP) solution of the remaining items,
+     * found by binary search over prefix sums of weight and value.
+     */
+    public static Result branchAndBoundKnapsack(ColumnarDataset data, Result incumbent,
+                                                long nodeBudget, long timeBudgetNanos) {
+        Result result = new Result("0-1 Knapsack - Branch and Bound", data);
+        
+        long startTime = System.nanoTime();
+        long deadline = deadlineAfter(startTime, timeBudgetNanos);
+        
+        // Zero-weight items are always taken; items heavier than the knapsack never are
+        int capacity = data.capacity;
+        long fixedValue = 0;
+        int m = 0;
+        int[] order = new int[data.n];
+        for (int p : data.orderByRatio()) {
+            if (data.weights[p] == 0) {
+                if (data.values[p] > 0) {
+                    fixedValue += data.values[p];
+                    result.selectedItems.add(p + 1);
+                }
+            } else if (data.weights[p] <= capacity) {
+                order[m++] = p;
+            }
+        }
+        
+        // Nothing filtered out: the cached ratio-order prefix sums apply as they are
+        long[] prefixWeight;
+        long[] prefixValue;
+        if (m == data.n) {
+            prefixWeight = data.prefixWeightsByRatio();
+            prefixValue = data.prefixValuesByRatio();
+        } else {
+            prefixWeight = new long[m + 1];
+            prefixValue = new long[m + 1];
+            for (int i = 0; i < m; i++) {
+                prefixWeight[i + 1] = prefixWeight[i] + data.weights[order[i]];
+                prefixValue[i + 1] = prefixValue[i] + data.values[order[i]];
+            }
+        }
+        
+        // Incumbent, as indices into order
+        boolean[] inIncumbent = new boolean[data.n];
+        for (int id : incumbent.selectedItems) {
+            inIncumbent[id - 1] = true;
+        }
+        int[] stack = new int[m];
+        int top = 0;
+        int[] bestStack = new int[m];
+        int bestTop = 0;
+        long best = 0;
+        for (int i = 0; i < m; i++) {
+            if (inIncumbent[order[i]]) {
+                bestStack[bestTop++] = i;
+                best += data.values[order[i]];
+            }
+        }
+        
+        // Once the incumbent reaches the root bound nothing better exists. The cardinality
+        // bound costs a few sorts, so it is only computed if the search does not finish quickly.
+        long rootBound = Long.MAX_VALUE;
+        
+        long weight = 0;
+        long value = 0;
+        int k = 0;
+        long nodes = 0;
+        boolean complete = false;
+        
+        while (true) {
+            if (best >= rootBound) {
+                complete = true;
+                break;
+            }
+            nodes++;
+            if (nodes == CARDINALITY_BOUND_NODES) {
+                rootBound = cardinalityBound(data, order, m, capacity);
+                continue;
+            }
+            if (nodes > nodeBudget || ((nodes & 1023) == 0 && System.nanoTime() > deadline)) {
+                break;
+            }
+            
+            // Greedy prefix of the remaining items that fits, then the critical item
+            long target = prefixWeight[k] + (capacity - weight);
+            int critical = upperBound(prefixWeight, k, m, target) - 1;
+            long bound = value + prefixValue[critical] - prefixValue[k];
+            if (critical < m) {
+                bound = martelloTothBound(data, order, m, k, critical, bound, target - prefixWeight[critical]);
+            }
+            
+            if (bound > best) {
+                // Take the whole fitting prefix; the bound is unchanged along it
+                for (int i = k; i < critical; i++) {
+                    stack[top++] = i;
+                }
+                weight += prefixWeight[critical] - prefixWeight[k];
+                value += prefixValue[critical] - prefixValue[k];
+                
+                if (critical < m) {
+                    // The critical item does not fit: branch on leaving it out
+                    k = critical + 1;
+                    continue;
+                }
+                
+                // Every remaining item was taken and bound == value > best
+                best = value;
+                bestTop = top;
+                System.arraycopy(stack, 0, bestStack, 0, top);
+            }
+            
+            // Backtrack: drop the most recently taken item and explore leaving it out
+            if (top == 0) {
+                complete = true;
+                break;
+            }
+            int i = stack[--top];
+            weight -= data.weights[order[i]];
+            value -= data.values[order[i]];
+            k = i + 1;
+        }
+        
+        result.totalValue = fixedValue;
+        for (int i = 0; i < bestTop; i++) {
+            int p = order[bestStack[i]];
+            result.totalValue += data.values[p];
+            result.totalWeight += data.weights[p];
+            result.selectedItems.add(p + 1);
+        }
+        result.provenOptimal = complete;
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * Root upper bound with a cardinality constraint: no solution holds more items than
+     * the lightest ones that fit together. For any lambda >= 0,
+     * lambda * maxCount + LP(values - lambda) bounds the optimum; lambda = 0 is the plain
+     * LP bound, and the best lambda is found by ternary search (the function is convex).
+     * This closes the gap on strongly correlated instances, where the LP bound is weak.
+     */
+    static long cardinalityBound(ColumnarDataset data, int[] order, int m, int capacity) {
+        int maxValue = 0;
+        for (int i = 0; i < m; i++) {
+            maxValue = Math.max(maxValue, data.values[order[i]]);
+        }
+        
+        int[] lightest = sortPositionsByKey(data.weights, false);
+        int maxCount = 0;
+        long used = 0;
+        for (int p : lightest) {
+            if (data.weights[p] == 0 || data.weights[p] > capacity) continue;
+            if (used + data.weights[p] > capacity) break;
+            used += data.weights[p];
+            maxCount++;
+        }
+        
+        int lo = 0;
+        int hi = maxValue;
+        while (hi - lo > 2) {
+            int m1 = lo + (hi - lo) / 3;
+            int m2 = hi - (hi - lo) / 3;
+            if (lagrangianBound(data, order, m, capacity, maxCount, m1)
+                    <= lagrangianBound(data, order, m, capacity, maxCount, m2)) {
+                hi = m2;
+            } else {
+                lo = m1;
+            }
+        }
+        double bound = Double.MAX_VALUE;
+        for (int lambda = lo; lambda <= hi; lambda++) {
+            bound = Math.min(bound, lagrangianBound(data, order, m, capacity, maxCount, lambda));
+        }
+        
+        // Small slack keeps rounding error from cutting below the true bound
+        return (long) Math.floor(bound + 1e-6);
+    }
+    
+    // lambda * maxCount + the fractional knapsack over values reduced by lambda
+    private static double lagrangianBound(ColumnarDataset data, int[] order, int m, int capacity,
+                                          int maxCount, int lambda) {
+        int count = 0;
+        int[] candidates = new int[m];
+        double[] ratios = new double[data.n];
+        for (int i = 0; i < m; i++) {
+            int p = order[i];
+            int reduced = data.values[p] - lambda;
+            if (reduced > 0) {
+                candidates[count++] = p;
+                ratios[p] = (double) reduced / data.weights[p];
+            }
+        }
+        
+        int[] sorted = sortPositions(count, (a, b) -> Double.compare(ratios[candidates[b]], ratios[candidates[a]]));
+        double bound = (double) lambda * maxCount;
+        long remaining = capacity;
+        for (int i : sorted) {
+            int p = candidates[i];
+            int reduced = data.values[p] - lambda;
+            if (data.weights[p] <= remaining) {
+                bound += reduced;
+                remaining -= data.weights[p];
+            } else {
+                bound += (double) reduced * remaining / data.weights[p];
+                break;
+            }
+        }
+        return bound;
+    }
+    
+    /**
+     * Martello-Toth bound at the critical item s, given the value of the greedy prefix
+     * and the capacity it leaves: the better of leaving s out (rest filled at the ratio
+     * of s + 1) and forcing s in (room made at the ratio of s - 1). Never above the LP bound.
+     */
+    static long martelloTothBound(ColumnarDataset data, int[] order, int m, int k, int s,
+                                  long prefixValue, long residual) {
+        long without = prefixValue;
+        if (s + 1 < m) {
+            int next = order[s + 1];
+            without += residual * data.values[next] / data.weights[next];
+        }
+        
+        // Forcing s in needs room from the prefix items k..s-1, cheapest last
+        long with = Long.MIN_VALUE;
+        if (s > k) {
+            int p = order[s];
+            int prev = order[s - 1];
+            long shortfall = data.weights[p] - residual;
+            with = Math.floorDiv((prefixValue + data.values[p]) * data.weights[prev]
+                                 - shortfall * data.values[prev], data.weights[prev]);
+        }
+        return Math.max(without, with);
+    }
+    
+    // First index in [from, to] whose prefix sum exceeds target (to + 1 if none)
+    static int upperBound(long[] prefix, int from, int to, long target) {
+        int lo = from;
+        int hi = to + 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prefix[mid] <= target) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    // ==================== CORE 0-1 KNAPSACK ====================
+    
+    // Items in the first core; each later core is CORE_GROWTH times larger, up to what the bound requires
+    static final int CORE_INITIAL_SIZE = 256;
+    static final int CORE_GROWTH = 8;
+    
+    // Live states allowed in the core enumeration before settling for the best found
+    static final int CORE_MAX_STATES = 1 << 22;
+    
+    /**
+     * 0-1 Knapsack - Core algorithm (after Balas-Zemel and Pisinger)
+     * Exact for large instances whose optimum differs from the ratio greedy in few items
+     */
+    public static Result coreKnapsack(Dataset dataset, long timeBudgetNanos) {
+        return coreKnapsack(dataset.columnar(), timeBudgetNanos);
+    }
+    
+    /**
+     * Finds the break item b in O(n) and prices every item by its reduced cost
+     * |p_j - r_b w_j| at the break ratio r_b. Any solution better than z can differ from
+     * the break solution only in items whose reduced cost is below U - z (U the LP bound),
+     * so all other items are fixed. The core, the items of least reduced cost, is sorted by
+     * ratio and solved exactly by CoreEnumeration with everything else fixed; this raises z
+     * and so shrinks the set of items the bound cannot fix. The core grows until it holds
+     * that whole set, at which point the result is proven optimal. If an enumeration
+     * outgrows CORE_MAX_STATES or the time budget, the best solution found so far is
+     * returned unproven.
+     */
+    public static Result coreKnapsack(ColumnarDataset data, long timeBudgetNanos) {
+        Result result = new Result("0-1 Knapsack - Core", data);
+        
+        long startTime = System.nanoTime();
+        long deadline = deadlineAfter(startTime, timeBudgetNanos);
+        
+        // Zero-weight items are always taken; items heavier than the knapsack never are
+        int capacity = data.capacity;
+        int m = 0;
+        int[] positions = new int[data.n];
+        boolean[] chosen = new boolean[data.n];
+        for (int p = 0; p < data.n; p++) {
+            if (data.weights[p] == 0) {
+                chosen[p] = data.values[p] > 0;
+            } else if (data.weights[p] <= capacity) {
+                positions[m++] = p;
+            }
+        }
+        positions = Arrays.copyOf(positions, m);
+        
+        CriticalSplit split = findCriticalItem(data, positions, capacity);
+        int b = split.criticalItem();
+        boolean[] inBreak = new boolean[data.n];
+        for (int i = 0; i < split.index; i++) {
+            inBreak[split.items[i]] = true;
+        }
+        for (int p : positions) {
+            chosen[p] = inBreak[p];
+        }
+        long phaseStart = Metrics.phase(result, "split", startTime);
+        
+        if (b < 0) {
+            // Everything fits
+            for (int p : positions) {
+                chosen[p] = true;
+            }
+            result.provenOptimal = true;
+        } else {
+            // Reduced costs scaled by w_b, so they stay exact integers
+            long wb = data.weights[b];
+            long pb = data.values[b];
+            long[] reducedCost = new long[data.n];
+            for (int p : positions) {
+                reducedCost[p] = Math.abs(data.values[p] * wb - data.weights[p] * pb);
+            }
+            long best = split.valueBefore;
+            int[] ranked = positions.clone();
+            int coreSize = Math.min(m, CORE_INITIAL_SIZE);
+            while (true) {
+                selectSmallest(ranked, reducedCost, coreSize);
+                int[] core = Arrays.copyOf(ranked, coreSize);
+                int[] sorted = sortPositions(coreSize, (x, y) -> {
+                    int cmp = Double.compare(data.ratios[core[y]], data.ratios[core[x]]);
+                    return (cmp != 0) ? cmp : Integer.compare(core[x], core[y]);
+                });
+                int[] order = new int[coreSize];
+                for (int i = 0; i < coreSize; i++) {
+                    order[i] = core[sorted[i]];
+                }
+                
+                CoreEnumeration search = new CoreEnumeration(data, order, inBreak, capacity, best);
+                search.run(split.weightBefore, split.valueBefore, deadline);
+                if (search.best > best) {
+                    best = search.best;
+                    for (int p : positions) {
+                        chosen[p] = inBreak[p];
+                    }
+                    for (CoreEnumeration.Toggle t = search.bestToggles; t != null; t = t.previous) {
+                        chosen[t.item] = !chosen[t.item];
+                    }
+                }
+                if (!search.complete) break;
+                
+                long threshold = reducedCostThreshold(split, best, wb, pb);
+                int needed = 0;
+                for (int p : positions) {
+                    if (reducedCost[p] <= threshold) needed++;
+                }
+                if (needed <= coreSize) {
+                    result.provenOptimal = true;
+                    break;
+                }
+                coreSize = (int) Math.min(needed, (long) coreSize * CORE_GROWTH);
+            }
+        }
+        Metrics.phase(result, "core", phaseStart);
+        
+        for (int p = 0; p < data.n; p++) {
+            if (chosen[p]) {
+                result.totalValue += data.values[p];
+                result.totalWeight += data.weights[p];
+                result.selectedItems.add(p + 1);
+            }
+        }
+        
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * A solution better than best differs from the break solution only in items whose
+     * reduced cost (scaled by w_b) is at most (U - best - 1) * w_b, taken with the exact
+     * rational LP bound U. Negative when no better solution exists, so no item qualifies.
+     */
+    static long reducedCostThreshold(CriticalSplit split, long best, long wb, long pb) {
+        long gap = split.valueBefore - best - 1;
+        try {
+            return Math.addExact(Math.multiplyExact(gap, wb), split.residual * pb);
+        } catch (ArithmeticException e) {
+            return (gap < 0) ? -1 : Long.MAX_VALUE;
+        }
+    }
+    
+    /**
+     * Minknap-style enumeration over a ratio-sorted core whose break items come first.
+     * A state is a solution that differs from the break solution in the core items
+     * handled so far, kept as (weight, value) plus the chain of items it toggled.
+     * The core grows alternately by the next item after the break (may be added) and
+     * the next one before it (may be removed). States are kept sorted by weight with
+     * strictly rising value (dominance), and a state is dropped once its bound, from the
+     * ratio of the next item it could still add or remove, cannot beat the best value.
+     */
+    static class CoreEnumeration {
+        static final class Toggle {
+            final int item;
+            final Toggle previous;
+            
+            Toggle(int item, Toggle previous) {
+                this.item = item;
+                this.previous = previous;
+            }
+        }
+        
+        private final ColumnarDataset data;
+        private final int[] order;
+        private final long capacity;
+        private final int breakCount; // order[0..breakCount) are in the break solution
+        long best;
+        Toggle bestToggles;
+        boolean complete;
+        
+        private int size;
+        private long[] weights = new long[16];
+        private long[] values = new long[16];
+        private Toggle[] toggles = new Toggle[16];
+        private long[] nextWeights = new long[16];
+        private long[] nextValues = new long[16];
+        private Toggle[] nextToggles = new Toggle[16];
+        
+        CoreEnumeration(ColumnarDataset data, int[] order, boolean[] inBreak, long capacity, long best) {
+            this.data = data;
+            this.order = order;
+            this.capacity = capacity;
+            this.best = best;
+            int count = 0;
+            while (count < order.length && inBreak[order[count]]) count++;
+            this.breakCount = count;
+        }
+        
+        void run(long breakWeight, long breakValue, long deadline) {
+            size = 1;
+            weights[0] = breakWeight;
+            values[0] = breakValue;
+            toggles[0] = null;
+            int s = breakCount - 1; // next item that may be removed
+            int t = breakCount;     // next item that may be added
+            for (long step = 1; size > 0 && (s >= 0 || t < order.length); step++) {
+                if (t < order.length) {
+                    expand(order[t++], true);
+                    prune(s, t);
+                }
+                if (s >= 0 && size > 0) {
+                    expand(order[s--], false);
+                    prune(s, t);
+                }
+                if (size > CORE_MAX_STATES || ((step & 63) == 0 && System.nanoTime() > deadline)) return;
+            }
+            complete = true;
+        }
+        
+        // Merges the states with their copies that add (or remove) item, keeping the undominated ones
+        private void expand(int item, boolean add) {
+            long dw = add ? data.weights[item] : -data.weights[item];
+            long dv = add ? data.values[item] : -data.values[item];
+            if (nextWeights.length < 2 * size) {
+                int length = 2 * size;
+                nextWeights = new long[length];
+                nextValues = new long[length];
+                nextToggles = new Toggle[length];
+            }
+            
+            // Both inputs are sorted by weight; removal shifts the copies left, addition right
+            int i = 0;
+            int j = 0;
+            int out = 0;
+            while (i < size || j < size) {
+                boolean fromCopy = i == size || (j < size && weights[j] + dw < weights[i]);
+                long w = fromCopy ? weights[j] + dw : weights[i];
+                long v = fromCopy ? values[j] + dv : values[i];
+                if (out > 0 && nextWeights[out - 1] == w) {
+                    if (v > nextValues[out - 1]) {
+                        nextValues[out - 1] = v;
+                        nextToggles[out - 1] = fromCopy ? new Toggle(item, toggles[j]) : toggles[i];
+                    }
+                } else if (out == 0 || v > nextValues[out - 1]) {
+                    nextWeights[out] = w;
+                    nextValues[out] = v;
+                    nextToggles[out] = fromCopy ? new Toggle(item, toggles[j]) : toggles[i];
+                    out++;
+                }
+                if (fromCopy) j++; else i++;
+            }
+            
+            long[] swapWeights = weights; weights = nextWeights; nextWeights = swapWeights;
+            long[] swapValues = values; values = nextValues; nextValues = swapValues;
+            Toggle[] swapToggles = toggles; toggles = nextToggles; nextToggles = swapToggles;
+            Arrays.fill(nextToggles, 0, size, null);
+            size = out;
+        }
+        
+        // Records improving feasible states, then keeps the states whose bound exceeds best
+        private void prune(int s, int t) {
+            for (int i = 0; i < size && weights[i] <= capacity; i++) {
+                if (values[i] > best) {
+                    best = values[i];
+                    bestToggles = toggles[i];
+                }
+            }
+            
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                long w = weights[i];
+                long v = values[i];
+                boolean promising;
+                if (w <= capacity) {
+                    // Fill the free capacity at the ratio of the next item that may be added
+                    if (t < order.length) {
+                        int p = order[t];
+                        promising = !productLess(capacity - w, data.values[p], best + 1 - v, data.weights[p]);
+                    } else {
+                        promising = v > best;
+                    }
+                } else if (s >= 0) {
+                    // Shed the excess at the ratio of the next item that may be removed
+                    int p = order[s];
+                    promising = v > best && !productLess(v - best - 1, data.weights[p], w - capacity, data.values[p]);
+                } else {
+                    promising = false;
+                }
+                if (promising) {
+                    weights[kept] = w;
+                    values[kept] = v;
+                    toggles[kept++] = toggles[i];
+                }
+            }
+            Arrays.fill(toggles, kept, size, null);
+            size = kept;
+        }
+    }
+    
+    // a * b < c * d for non-negative operands, exact beyond the range of long
+    static boolean productLess(long a, long b, long c, long d) {
+        long high = Math.multiplyHigh(a, b);
+        long otherHigh = Math.multiplyHigh(c, d);
+        return (high != otherHigh) ? high < otherHigh : Long.compareUnsigned(a * b, c * d) < 0;
+    }
+    
+    // Reorders items so that items[0..k) hold the k items of least key (quickselect, three-way)
+    static void selectSmallest(int[] items, long[] keys, int k) {
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        int lo = 0;
+        int hi = items.length;
+        while (hi - lo > 1 && k > lo && k < hi) {
+            long pivot = keys[items[lo + rand.nextInt(hi - lo)]];
+            // [lo, lt) < pivot, [lt, i) == pivot, [gt, hi) > pivot
+            int lt = lo;
+            int i = lo;
+            int gt = hi;
+            while (i < gt) {
+                long key = keys[items[i]];
+                if (key < pivot) {
+                    swap(items, lt++, i++);
+                } else if (key > pivot) {
+                    swap(items, i, --gt);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                hi = lt;
+            } else if (k > gt) {
+                lo = gt;
+            } else {
+                return;
+            }
+        }
+    }
+    
+    // ==================== LOCAL SEARCH ====================
+    
+    // Post-optimization stage applied to a finished 0-1 result
+    interface PostOptimizer {
+        Result improve(ColumnarDataset data, Result start);
+    }
+    
+    /**
+     * Hill climbing over a bitset selection, with incremental weight and value. Each step
+     * fills the residual capacity (adds, in ratio order), then looks for an exchange:
+     * one selected item out and the most valuable free item that fits in, plus the next
+     * most valuable one that still fits (1-for-2); failing that, one selected item out and
+     * the freed room refilled in ratio order; failing that, two selected items out and up
+     * to two in, or the freed room refilled. The compound moves try the selected items
+     * whose room is worth most at the best free ratio. Free items live in two segment trees, a value
+     * maximum over the weight order and a weight minimum over the ratio order, so adds,
+     * drops and lookups cost O(log n) and a step never rescans the free items.
+     * With tabuTenure > 0, a step without an improving move makes the least-worsening
+     * exchange or drop instead, the items it touched stay fixed for tabuTenure steps,
+     * and the search stops after maxIdleSteps steps without a new best.
+     */
+    static class LocalSearch implements PostOptimizer {
+        int tabuTenure = 0;           // 0 = first-improvement hill climbing, which stops at a local optimum
+        int maxIdleSteps = -1;        // tabu only: steps without a new best before stopping, -1 = n
+        long timeBudgetNanos = Long.MAX_VALUE;
+        
+        // Selected items tried per compound move
+        static final int DROP_CANDIDATES = 16;
+        
+        @Override
+        public Result improve(ColumnarDataset data, Result start) {
+            long startTime = System.nanoTime();
+            long deadline = deadlineAfter(startTime, timeBudgetNanos);
+            Climb climb = new Climb(data, tabuTenure, start.selectedItems);
+            if (climb.weight > data.capacity) {
+                throw new IllegalArgumentException("Start solution exceeds the capacity: " + start.strategyName);
+            }
+            
+            // Hill climbing only ever gains, so there the current selection is the best one
+            long[] bestSelection = (tabuTenure > 0) ? climb.selected.clone() : climb.selected;
+            long bestValue = climb.value;
+            long idleLimit = (maxIdleSteps < 0) ? data.n : maxIdleSteps;
+            long idle = 0;
+            
+            while (System.nanoTime() < deadline) {
+                climb.nextStep();
+                climb.fill();
+                if (tabuTenure > 0) {
+                    if (climb.value > bestValue) {
+                        bestValue = climb.value;
+                        bestSelection = climb.selected.clone();
+                        idle = 0;
+                    } else if (++idle >= idleLimit) {
+                        break;
+                    }
+                }
+                
+                boolean improved = climb.exchange() || climb.dropAndRefill() || climb.dropPair();
+                if (!improved && (tabuTenure == 0 || !climb.applyLeastWorsening())) break;
+            }
+            if (tabuTenure > 0 && climb.value > bestValue) {
+                bestSelection = climb.selected.clone();
+            }
+            
+            Result result = new Result(start.strategyName + (tabuTenure > 0 ? " + Tabu Search" : " + Local Search"), data);
+            addSelectedIds(bestSelection, result.selectedItems);
+            for (int id : result.selectedItems) {
+                result.totalValue += data.values[id - 1];
+                result.totalWeight += data.weights[id - 1];
+            }
+            result.executionTime = start.executionTime + (System.nanoTime() - startTime);
+            result.generator = start.generator; // the search is deterministic, so the start's seed replays it
+            result.seed = start.seed;
+            return result;
+        }
+        
+        /**
+         * The state of one search: the selection as a bitset by position and by ratio rank,
+         * and the free items (unselected, positive value, not tabu) in the two trees.
+         */
+        private static final class Climb {
+            final int n;
+            final long capacity;
+            final int[] weights;
+            final int[] values;
+            final int tenure;
+            
+            final long[] selected;
+            long weight;
+            long value;
+            
+            final int[] ratioRank;
+            final int[] weightRank;
+            final int[] sortedWeights;
+            final ItemTree freeByWeight;   // most valuable free item in a weight prefix
+            final ItemTree freeByRatio;    // first free item in ratio order that fits
+            
+            final int[] tabuUntil;         // step until which an item may not move
+            int[] released = new int[16];  // tabu items in the order they expire
+            int releasedHead;
+            int releasedTail;
+            int step;
+            int scanFrom;                  // selection word where the exchange scan starts
+            
+            // Scratch: refilled items and drop candidates
+            final int[] added;
+            final int[] candidates = new int[DROP_CANDIDATES];
+            final double[] scores = new double[DROP_CANDIDATES];
+            
+            // Least-worsening exchange seen this step (tabu only)
+            int worstOut;
+            int worstIn1;
+            int worstIn2;
+            long worstDelta;
+            
+            Climb(ColumnarDataset data, int tenure, List<Integer> start) {
+                n = data.n;
+                capacity = data.capacity;
+                weights = data.weights;
+                values = data.values;
+                this.tenure = tenure;
+                
+                selected = new long[(n + 63) >>> 6];
+                int[] byRatio = data.orderByRatio();
+                int[] byWeight = data.orderByWeight();
+                ratioRank = new int[n];
+                weightRank = new int[n];
+                sortedWeights = new int[n];
+                for (int k = 0; k < n; k++) {
+                    ratioRank[byRatio[k]] = k;
+                    weightRank[byWeight[k]] = k;
+                    sortedWeights[k] = weights[byWeight[k]];
+                }
+                for (int id : start) {
+                    int p = id - 1;
+                    if (!isSelected(p)) {
+                        setSelected(p, true);
+                        weight += weights[p];
+                        value += values[p];
+                    }
+                }
+                
+                freeByWeight = new ItemTree(n, values, true);
+                freeByRatio = new ItemTree(n, weights, false);
+                for (int p = 0; p < n; p++) {
+                    if (!isSelected(p) && values[p] > 0) {
+                        freeByWeight.leaves[weightRank[p]] = p;
+                        freeByRatio.leaves[ratioRank[p]] = p;
+                    }
+                }
+                freeByWeight.build();
+                freeByRatio.build();
+                tabuUntil = new int[n];
+                added = new int[n];
+            }
+            
+            boolean isSelected(int p) {
+                return (selected[p >>> 6] & (1L << p)) != 0;
+            }
+            
+            private void setSelected(int p, boolean on) {
+                if (on) {
+                    selected[p >>> 6] |= 1L << p;
+                } else {
+                    selected[p >>> 6] &= ~(1L << p);
+                }
+            }
+            
+            boolean isTabu(int p) {
+                return tabuUntil[p] >= step;
+            }
+            
+            void add(int p) {
+                setSelected(p, true);
+                weight += weights[p];
+                value += values[p];
+                freeByWeight.set(weightRank[p], -1);
+                freeByRatio.set(ratioRank[p], -1);
+            }
+            
+            void drop(int p) {
+                setSelected(p, false);
+                weight -= weights[p];
+                value -= values[p];
+                if (values[p] > 0 && !isTabu(p)) {
+                    freeByWeight.set(weightRank[p], p);
+                    freeByRatio.set(ratioRank[p], p);
+                }
+            }
+            
+            // Keeps p where it is for the next tenure steps
+            void freeze(int p) {
+                if (tenure == 0 || p < 0) return;
+                tabuUntil[p] = step + tenure;
+                freeByWeight.set(weightRank[p], -1);
+                freeByRatio.set(ratioRank[p], -1);
+                if (releasedTail - releasedHead == released.length) {
+                    released = Arrays.copyOf(released, released.length * 2);
+                }
+                released[releasedTail++ % released.length] = p;
+            }
+            
+            // Starts a step, returning expired tabu items to the free trees
+            void nextStep() {
+                step++;
+                worstOut = -1;
+                worstDelta = Long.MIN_VALUE;
+                while (releasedHead < releasedTail) {
+                    int p = released[releasedHead % released.length];
+                    if (tabuUntil[p] >= step) break; // entries expire in the order they were added
+                    releasedHead++;
+                    if (!isSelected(p) && values[p] > 0 && tabuUntil[p] < step) {
+                        freeByWeight.set(weightRank[p], p);
+                        freeByRatio.set(ratioRank[p], p);
+                    }
+                }
+            }
+            
+            // Adds free items that still fit, best ratio first; returns the value gained
+            long fill() {
+                long before = value;
+                int p;
+                while ((p = freeByRatio.firstAtMost(capacity - weight)) >= 0) {
+                    add(p);
+                }
+                return value - before;
+            }
+            
+            // The most valuable free item of weight at most room, or -1
+            int bestFitting(long room) {
+                return freeByWeight.best(upperBound(sortedWeights, room));
+            }
+            
+            // The most valuable free item other than first that fits beside it in room, or -1
+            int secondFitting(int first, long room) {
+                if (first < 0) return -1;
+                freeByWeight.set(weightRank[first], -1);
+                int second = bestFitting(room - weights[first]);
+                freeByWeight.set(weightRank[first], first);
+                return second;
+            }
+            
+            /**
+             * One selected item out and the most valuable free item that fits in, or when
+             * that loses, two free items: the most valuable or the best-ratio one that fits,
+             * and the most valuable that fits beside it. Hill climbing applies the first move
+             * that gains; tabu search applies the best one if it gains and remembers it otherwise.
+             */
+            boolean exchange() {
+                int moveOut = -1;
+                int moveIn1 = -1;
+                int moveIn2 = -1;
+                long moveDelta = 0;
+                for (int scanned = 0; scanned < selected.length; scanned++) {
+                    int w = (scanFrom + scanned) % selected.length;
+                    long bits = selected[w];
+                    while (bits != 0) {
+                        int out = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        if (isTabu(out)) continue;
+                        
+                        long room = capacity - weight + weights[out];
+                        int in1 = bestFitting(room);
+                        int in2 = -1;
+                        long delta = -values[out];
+                        if (in1 >= 0) {
+                            delta += values[in1];
+                            if (delta <= 0) {
+                                in2 = secondFitting(in1, room);
+                                if (in2 >= 0) delta += values[in2];
+                            }
+                            if (delta <= 0) {
+                                // The best-ratio item leaves more room for a second one
+                                int ratioIn1 = freeByRatio.firstAtMost(room);
+                                int ratioIn2 = secondFitting(ratioIn1, room);
+                                if (ratioIn2 >= 0 && (long) values[ratioIn1] + values[ratioIn2] - values[out] > delta) {
+                                    in1 = ratioIn1;
+                                    in2 = ratioIn2;
+                                    delta = (long) values[in1] + values[in2] - values[out];
+                                }
+                            }
+                        }
+                        if (delta > moveDelta) {
+                            moveOut = out;
+                            moveIn1 = in1;
+                            moveIn2 = in2;
+                            moveDelta = delta;
+                            if (tenure == 0) break; // first improvement
+                        } else if (moveOut < 0 && delta > worstDelta) {
+                            worstOut = out;
+                            worstIn1 = in1;
+                            worstIn2 = in2;
+                            worstDelta = delta;
+                        }
+                    }
+                    if (moveOut >= 0 && tenure == 0) {
+                        scanFrom = w; // items before the move had nothing to gain, so resume here
+                        break;
+                    }
+                }
+                if (moveOut < 0) return false;
+                apply(moveOut, -1, moveIn1, moveIn2);
+                return true;
+            }
+            
+            /**
+             * Drops one of the drop candidates and refills the freed room with free items in
+             * ratio order, keeping the first such move that gains value; this catches the
+             * one-for-many exchanges that exchange() misses.
+             */
+            boolean dropAndRefill() {
+                int count = dropCandidates();
+                for (int i = 0; i < count; i++) {
+                    if (refill(candidates[i], -1)) return true;
+                }
+                return false;
+            }
+            
+            /**
+             * Two of the drop candidates out and up to two free items in, chosen as in
+             * exchange() for the room the pair frees, or else the room refilled in ratio order
+             * (two-for-many, as strongly correlated instances need).
+             */
+            boolean dropPair() {
+                int count = dropCandidates();
+                long residual = capacity - weight;
+                for (int i = 0; i < count; i++) {
+                    for (int j = i + 1; j < count; j++) {
+                        int out1 = candidates[i];
+                        int out2 = candidates[j];
+                        long room = residual + weights[out1] + weights[out2];
+                        int in1 = bestFitting(room);
+                        if (in1 < 0) continue;
+                        long delta = (long) values[in1] - values[out1] - values[out2];
+                        int in2 = -1;
+                        if (delta <= 0) {
+                            in2 = secondFitting(in1, room);
+                            if (in2 >= 0) delta += values[in2];
+                        }
+                        if (delta > 0) {
+                            apply(out1, out2, in1, in2);
+                            return true;
+                        }
+                        if (refill(out1, out2)) return true;
+                    }
+                }
+                return false;
+            }
+            
+            // Drops out1 (and out2 unless -1), refills in ratio order, and keeps the move if it gains
+            private boolean refill(int out1, int out2) {
+                // The room refilled at the best free ratio bounds the gain
+                long room = capacity - weight + weights[out1] + ((out2 >= 0) ? weights[out2] : 0);
+                long lost = values[out1] + ((out2 >= 0) ? values[out2] : 0);
+                int top = freeByRatio.firstAtMost(room);
+                if (top < 0 || (weights[top] > 0 && (double) room * values[top] / weights[top] <= lost)) return false;
+                
+                long before = value;
+                take(out1);
+                if (out2 >= 0) take(out2);
+                
+                int refilled = 0;
+                int p;
+                while ((p = freeByRatio.firstAtMost(capacity - weight)) >= 0) {
+                    add(p);
+                    added[refilled++] = p;
+                }
+                if (value > before) {
+                    release(out1);
+                    if (out2 >= 0) release(out2);
+                    for (int k = 0; k < refilled; k++) {
+                        freeze(added[k]);
+                    }
+                    return true;
+                }
+                
+                // No gain: undo the refill
+                for (int k = 0; k < refilled; k++) {
+                    drop(added[k]);
+                }
+                untake(out1);
+                if (out2 >= 0) untake(out2);
+                return false;
+            }
+            
+            // Out of the selection but not yet free, so a refill cannot take it straight back
+            private void take(int p) {
+                setSelected(p, false);
+                weight -= weights[p];
+                value -= values[p];
+            }
+            
+            private void untake(int p) {
+                setSelected(p, true);
+                weight += weights[p];
+                value += values[p];
+            }
+            
+            // Frees an item removed by take()
+            private void release(int p) {
+                freeze(p);
+                if (values[p] > 0 && !isTabu(p)) {
+                    freeByWeight.set(weightRank[p], p);
+                    freeByRatio.set(ratioRank[p], p);
+                }
+            }
+            
+            // Tabu only: the least-worsening exchange or drop seen this step, if any
+            boolean applyLeastWorsening() {
+                if (worstOut < 0) return false;
+                apply(worstOut, -1, worstIn1, worstIn2);
+                return true;
+            }
+            
+            private void apply(int out1, int out2, int in1, int in2) {
+                drop(out1);
+                freeze(out1);
+                if (out2 >= 0) {
+                    drop(out2);
+                    freeze(out2);
+                }
+                if (in1 >= 0) {
+                    add(in1);
+                    freeze(in1);
+                }
+                if (in2 >= 0) {
+                    add(in2);
+                    freeze(in2);
+                }
+            }
+            
+            /**
+             * Fills candidates with the selected, non-tabu items whose room is worth the most
+             * at the best free ratio beyond what they hold (weight * ratio - value), best
+             * first; returns how many. Dropping these frees the room a refill can use best.
+             */
+            private int dropCandidates() {
+                int top = freeByRatio.firstAtMost(Long.MAX_VALUE);
+                double ratio = (top >= 0 && weights[top] > 0) ? (double) values[top] / weights[top] : 0;
+                int count = 0;
+                for (int w = 0; w < selected.length; w++) {
+                    long bits = selected[w];
+                    while (bits != 0) {
+                        int p = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        if (isTabu(p)) continue;
+                        double score = weights[p] * ratio - values[p];
+                        if (count == DROP_CANDIDATES && score <= scores[count - 1]) continue;
+                        int k = (count < DROP_CANDIDATES) ? count++ : count - 1;
+                        for (; k > 0 && scores[k - 1] < score; k--) {
+                            candidates[k] = candidates[k - 1];
+                            scores[k] = scores[k - 1];
+                        }
+                        candidates[k] = p;
+                        scores[k] = score;
+                    }
+                }
+                return count;
+            }
+        }
+    }
+    
+    /**
+     * Segment tree over ranks 0..n-1 whose leaves hold an item (or -1) and whose inner
+     * nodes hold the child item with the larger key (max) or the smaller key (min),
+     * ties to the left. Setting a leaf and each query cost O(log n).
+     */
+    static final class ItemTree {
+        final int size;
+        final int[] nodes;   // nodes[1] is the root, leaves start at size
+        final int[] keys;
+        final boolean max;
+        final int[] leaves;  // view of the leaves for bulk loading before build()
+        
+        ItemTree(int n, int[] keys, boolean max) {
+            int size = 1;
+            while (size < n) size <<= 1;
+            this.size = size;
+            this.nodes = new int[2 * size];
+            this.keys = keys;
+            this.max = max;
+            Arrays.fill(nodes, -1);
+            this.leaves = new int[size];
+            Arrays.fill(leaves, -1);
+        }
+        
+        // Loads the leaves array into the tree in O(n)
+        void build() {
+            System.arraycopy(leaves, 0, nodes, size, size);
+            for (int i = size - 1; i >= 1; i--) {
+                nodes[i] = better(nodes[2 * i], nodes[2 * i + 1]);
+            }
+        }
+        
+        private int better(int a, int b) {
+            if (a < 0) return b;
+            if (b < 0) return a;
+            if (max) return (keys[b] > keys[a]) ? b : a;
+            return (keys[b] < keys[a]) ? b : a;
+        }
+        
+        void set(int rank, int item) {
+            int i = rank + size;
+            nodes[i] = item;
+            for (i >>>= 1; i >= 1; i >>>= 1) {
+                nodes[i] = better(nodes[2 * i], nodes[2 * i + 1]);
+            }
+        }
+        
+        // The best item among ranks [0, to), or -1
+        int best(int to) {
+            int result = -1;
+            for (int l = size, r = to + size; l < r; l >>>= 1, r >>>= 1) {
+                if ((l & 1) != 0) result = better(result, nodes[l++]);
+                if ((r & 1) != 0) result = better(result, nodes[--r]);
+            }
+            return result;
+        }
+        
+        // Min trees: the lowest-ranked item whose key is at most limit, or -1
+        int firstAtMost(long limit) {
+            if (nodes[1] < 0 || keys[nodes[1]] > limit) return -1;
+            int i = 1;
+            while (i < size) {
+                int left = nodes[2 * i];
+                i = (left >= 0 && keys[left] <= limit) ? 2 * i : 2 * i + 1;
+            }
+            return nodes[i];
+        }
+    }
+    
+    // First index whose value exceeds target in an ascending array (length if none)
+    static int upperBound(int[] sorted, long target) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= target) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * Runs a 0-1 result through hill climbing (add and exchange moves, first improvement)
+     */
+    public static Result withLocalSearch(ColumnarDataset data, Result start) {
+        return new LocalSearch().improve(data, start);
+    }
+    
+    // ==================== INCREMENTAL SOLVER ====================
+    
+    /**
+     * Greedy solver for workloads that edit a few items or change the capacity between
+     * solves. Items are kept in ratio order (ties by id, as in orderByRatio) in a treap
+     * whose nodes carry subtree sums of weight and value and the subtree's lightest
+     * weight, so nothing is ever re-sorted:
+     * - insert, delete and update cost O(log n) expected;
+     * - the fractional value for a capacity is one O(log n) descent over prefix weights;
+     * - the greedy 0-1 value takes whole subtrees that fit from their sums and skips
+     *   subtrees whose lightest item does not fit, so it costs O(log n) per item accepted
+     *   after the first rejected one.
+     * Results match fractionalKnapsackByRatio and zeroOneKnapsackByRatio. Not thread-safe.
+     */
+    static class IncrementalSolver {
+        
+        static final class Node {
+            final int id;
+            int weight;
+            int value;
+            double ratio;
+            final long priority;
+            Node left;
+            Node right;
+            int count;       // items in this subtree
+            long sumWeight;
+            long sumValue;
+            int minWeight;
+            
+            Node(int id, int weight, int value, long priority) {
+                this.id = id;
+                this.priority = priority;
+                set(weight, value);
+            }
+            
+            void set(int weight, int value) {
+                this.weight = weight;
+                this.value = value;
+                this.ratio = Item.ratioOf(weight, value);
+            }
+        }
+        
+        private final Map<Integer, Node> byId = new HashMap<>();
+        private final SplittableRandom priorities = new SplittableRandom();
+        private Node root;
+        int capacity;
+        
+        // Scratch totals of the current query
+        private long takenWeight;
+        private long takenValue;
+        
+        public IncrementalSolver(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        // Builds the treap in O(n) from the dataset's cached ratio order; item ids are position + 1
+        public IncrementalSolver(ColumnarDataset data) {
+            this(data.capacity);
+            Node[] stack = new Node[data.n];
+            int top = 0;
+            for (int p : data.orderByRatio()) {
+                Node node = new Node(p + 1, data.weights[p], data.values[p], priorities.nextLong());
+                byId.put(node.id, node);
+                
+                // Right spine of a Cartesian tree: pop the nodes the new one outranks
+                Node last = null;
+                while (top > 0 && stack[top - 1].priority < node.priority) {
+                    last = stack[--top];
+                }
+                node.left = last;
+                if (top > 0) stack[top - 1].right = node;
+                stack[top++] = node;
+            }
+            root = (top > 0) ? stack[0] : null;
+            pullAll(root);
+        }
+        
+        public int size() {
+            return byId.size();
+        }
+        
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        public void insert(int id, int weight, int value) {
+            if (byId.containsKey(id)) {
+                throw new IllegalArgumentException("Item " + id + " already exists");
+            }
+            Node node = new Node(id, weight, value, priorities.nextLong());
+            byId.put(id, node);
+            root = insert(root, node);
+        }
+        
+        public boolean delete(int id) {
+            Node node = byId.remove(id);
+            if (node == null) return false;
+            root = delete(root, node);
+            return true;
+        }
+        
+        // Re-keys the item: its ratio, and so its place in the order, may change
+        public void update(int id, int weight, int value) {
+            Node node = byId.get(id);
+            if (node == null) {
+                throw new IllegalArgumentException("No item " + id);
+            }
+            root = delete(root, node);
+            node.set(weight, value);
+            node.left = null;
+            node.right = null;
+            root = insert(root, node);
+        }
+        
+        // Optimal fractional value at the current capacity, without listing the items
+        public double fractionalValue() {
+            Node critical = reach(capacity);
+            double value = takenValue;
+            if (critical != null) {
+                value += critical.value * ((double) (capacity - takenWeight) / critical.weight);
+            }
+            return value;
+        }
+        
+        // Greedy-by-ratio 0-1 value at the current capacity, without listing the items
+        public long greedyValue() {
+            takenWeight = 0;
+            takenValue = 0;
+            greedy(root, capacity, null);
+            return takenValue;
+        }
+        
+        public Result fractionalKnapsack() {
+            Result result = new Result("Fractional - Greedy by Ratio (Incremental)");
+            long startTime = System.nanoTime();
+            
+            Node critical = reach(capacity);
+            boolean partial = critical != null && capacity > takenWeight;
+            int count = (critical != null) ? rank(critical) + (partial ? 1 : 0) : (capacity >= 0 ? size() : 0);
+            collect(root, count, result.selectedItems);
+            result.totalValue = takenValue;
+            result.totalWeight = takenWeight;
+            if (partial) {
+                double remainingCapacity = capacity - takenWeight;
+                result.totalValue += critical.value * (remainingCapacity / critical.weight);
+                result.totalWeight += remainingCapacity;
+            }
+            
+            result.executionTime = System.nanoTime() - startTime;
+            return result;
+        }
+        
+        public Result zeroOneKnapsackByRatio() {
+            Result result = new Result("0-1 Knapsack - Greedy by Ratio (Incremental)");
+            long startTime = System.nanoTime();
+            
+            takenWeight = 0;
+            takenValue = 0;
+            greedy(root, capacity, result.selectedItems);
+            result.totalValue = takenValue;
+            result.totalWeight = takenWeight;
+            
+            result.executionTime = System.nanoTime() - startTime;
+            return result;
+        }
+        
+        /**
+         * Finds the first item of the order that does not fit whole after the items before
+         * it, where the fractional scan takes its fraction and stops. Returns it with the
+         * totals of the items before it in takenWeight/takenValue, or null with the totals
+         * of everything taken if every item fits.
+         */
+        private Node reach(long capacity) {
+            takenWeight = 0;
+            takenValue = 0;
+            if (capacity < 0) return null;
+            if (root == null || root.sumWeight <= capacity) {
+                if (root != null) {
+                    takenWeight = root.sumWeight;
+                    takenValue = root.sumValue;
+                }
+                return null;
+            }
+            
+            Node t = root;
+            while (true) {
+                long leftWeight = takenWeight + sumWeight(t.left);
+                if (leftWeight > capacity) {
+                    t = t.left;
+                } else if (leftWeight + t.weight > capacity) {
+                    takenWeight = leftWeight;
+                    takenValue += sumValue(t.left);
+                    return t;
+                } else {
+                    takenWeight = leftWeight + t.weight;
+                    takenValue += sumValue(t.left) + t.value;
+                    t = t.right;
+                }
+            }
+        }
+        
+        // Greedy scan over t's subtree in order; adds to takenWeight/takenValue and returns the room left
+        private long greedy(Node t, long remaining, List<Integer> ids) {
+            if (t == null || t.minWeight > remaining) return remaining;
+            if (t.sumWeight <= remaining) {
+                takenWeight += t.sumWeight;
+                takenValue += t.sumValue;
+                if (ids != null) collect(t, t.count, ids);
+                return remaining - t.sumWeight;
+            }
+            remaining = greedy(t.left, remaining, ids);
+            if (t.weight <= remaining) {
+                takenWeight += t.weight;
+                takenValue += t.value;
+                if (ids != null) ids.add(t.id);
+                remaining -= t.weight;
+            }
+            return greedy(t.right, remaining, ids);
+        }
+        
+        // Number of items ordered before node
+        private int rank(Node node) {
+            int rank = 0;
+            Node t = root;
+            while (t != node) {
+                if (precedes(node, t)) {
+                    t = t.left;
+                } else {
+                    rank += count(t.left) + 1;
+                    t = t.right;
+                }
+            }
+            return rank + count(node.left);
+        }
+        
+        // Appends the ids of the first count items of t's subtree, in order
+        private static int collect(Node t, int count, List<Integer> ids) {
+            if (t == null || count <= 0) return 0;
+            int added = collect(t.left, count, ids);
+            if (added < count) {
+                ids.add(t.id);
+                added++;
+                added += collect(t.right, count - added, ids);
+            }
+            return added;
+        }
+        
+        private static boolean precedes(Node a, Node b) {
+            int cmp = Double.compare(a.ratio, b.ratio);
+            return cmp > 0 || (cmp == 0 && a.id < b.id);
+        }
+        
+        private static Node insert(Node t, Node node) {
+            if (t == null) {
+                pull(node);
+                return node;
+            }
+            if (node.priority > t.priority) {
+                Node[] parts = split(t, node);
+                node.left = parts[0];
+                node.right = parts[1];
+                pull(node);
+                return node;
+            }
+            if (precedes(node, t)) {
+                t.left = insert(t.left, node);
+            } else {
+                t.right = insert(t.right, node);
+            }
+            pull(t);
+            return t;
+        }
+        
+        private static Node delete(Node t, Node node) {
+            if (t == node) return merge(t.left, t.right);
+            if (precedes(node, t)) {
+                t.left = delete(t.left, node);
+            } else {
+                t.right = delete(t.right, node);
+            }
+            pull(t);
+            return t;
+        }
+        
+        // {nodes ordered before node, the rest}
+        private static Node[] split(Node t, Node node) {
+            if (t == null) return new Node[2];
+            if (precedes(t, node)) {
+                Node[] parts = split(t.right, node);
+                t.right = parts[0];
+                pull(t);
+                parts[0] = t;
+                return parts;
+            }
+            Node[] parts = split(t.left, node);
+            t.left = parts[1];
+            pull(t);
+            parts[1] = t;
+            return parts;
+        }
+        
+        // Every node of a is ordered before every node of b
+        private static Node merge(Node a, Node b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            if (a.priority > b.priority) {
+                a.right = merge(a.right, b);
+                pull(a);
+                return a;
+            }
+            b.left = merge(a, b.left);
+            pull(b);
+            return b;
+        }
+        
+        private static void pullAll(Node t) {
+            if (t == null) return;
+            pullAll(t.left);
+            pullAll(t.right);
+            pull(t);
+        }
+        
+        private static void pull(Node t) {
+            t.count = count(t.left) + 1 + count(t.right);
+            t.sumWeight = sumWeight(t.left) + t.weight + sumWeight(t.right);
+            t.sumValue = sumValue(t.left) + t.value + sumValue(t.right);
+            t.minWeight = Math.min(t.weight, Math.min(minWeight(t.left), minWeight(t.right)));
+        }
+        
+        private static int count(Node t) {
+            return (t == null) ? 0 : t.count;
+        }
+        
+        private static long sumWeight(Node t) {
+            return (t == null) ? 0 : t.sumWeight;
+        }
+        
+        private static long sumValue(Node t) {
+            return (t == null) ? 0 : t.sumValue;
+        }
+        
+        private static int minWeight(Node t) {
+            return (t == null) ? Integer.MAX_VALUE : t.minWeight;
+        }
+    }
+    
+    // ==================== STREAMING KNAPSACK ====================
+    
+    // One-pass solver fed item by item; it keeps only its own working set
+    interface StreamingPolicy {
+        void offer(int id, int weight, int value);
+        Result finish();
+    }
+    
+    // Selection sink for the threshold policies that keeps no ids, only the Result's totals
+    static final IntConsumer DISCARD_IDS = id -> { };
+    
+    /**
+     * Solves an instance read from a stream in the instance-file format, in one pass and
+     * without storing the items. The "n capacity" header sizes the feed and is passed to
+     * newPolicy; a trailing solution line is not read.
+     */
+    static Result solveStream(InputStream in, BiFunction<Integer, Integer, StreamingPolicy> newPolicy)
+            throws IOException {
+        long startTime = System.nanoTime();
+        StreamIntReader reader = new StreamIntReader(in, 1 << 16);
+        int n = reader.nextInt();
+        int capacity = reader.nextInt();
+        if (n < 0) {
+            throw new IOException("Negative item count");
+        }
+        
+        StreamingPolicy policy = newPolicy.apply(n, capacity);
+        for (int i = 0; i < n; i++) {
+            int value = reader.nextInt();
+            int weight = reader.nextInt();
+            policy.offer(i + 1, weight, value);
+        }
+        
+        Result result = policy.finish();
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    static Result solveStream(Iterator<Item> items, StreamingPolicy policy) {
+        long startTime = System.nanoTime();
+        while (items.hasNext()) {
+            Item item = items.next();
+            policy.offer(item.id, item.weight, item.value);
+        }
+        Result result = policy.finish();
+        result.executionTime = System.nanoTime() - startTime;
+        return result;
+    }
+    
+    /**
+     * Keeps the k best items by ratio (ties to the lower id, as in orderByRatio) in a
+     * min-heap over fixed slots, then fills the knapsack greedily from them: O(k) memory
+     * and O(log k) per item. With k at least n this is zeroOneKnapsackByRatio; a smaller k
+     * loses the light, low-ratio items the offline greedy picks up at the end, and k below
+     * the number of items the greedy takes caps the solution at k items.
+     */
+    static class TopRatioPolicy implements StreamingPolicy {
+        final int capacity;
+        final int k;
+        private final int[] ids;
+        private final int[] weights;
+        private final int[] values;
+        private final double[] ratios;
+        private final int[] heap; // slots, worst item on top
+        private int size;
+        
+        TopRatioPolicy(int capacity, int k) {
+            this.capacity = capacity;
+            this.k = k;
+            this.ids = new int[k];
+            this.weights = new int[k];
+            this.values = new int[k];
+            this.ratios = new double[k];
+            this.heap = new int[k];
+        }
+        
+        @Override
+        public void offer(int id, int weight, int value) {
+            if (weight > capacity || k == 0) return; // can never be taken
+            double ratio = Item.ratioOf(weight, value);
+            
+            // Until the heap is full every item gets a new slot; then it must beat the worst kept
+            boolean grow = size < k;
+            int slot = grow ? size : heap[0];
+            if (!grow) {
+                int cmp = Double.compare(ratio, ratios[slot]);
+                if (cmp < 0 || (cmp == 0 && id > ids[slot])) return;
+            }
+            ids[slot] = id;
+            weights[slot] = weight;
+            values[slot] = value;
+            ratios[slot] = ratio;
+            
+            if (grow) {
+                heap[size] = slot;
+                siftUp(size++);
+            } else {
+                siftDown(0);
+            }
+        }
+        
+        @Override
+        public Result finish() {
+            Result result = new Result("0-1 Knapsack - Streaming Top-" + k + " by Ratio");
+            int[] slots = Arrays.copyOf(heap, size);
+            int[] order = sortPositions(size, (a, b) -> {
+                int cmp = Double.compare(ratios[slots[b]], ratios[slots[a]]);
+                return (cmp != 0) ? cmp : Integer.compare(ids[slots[a]], ids[slots[b]]);
+            });
+            
+            int remainingCapacity = capacity;
+            for (int i : order) {
+                int slot = slots[i];
+                if (weights[slot] <= remainingCapacity) {
+                    result.totalValue += values[slot];
+                    result.totalWeight += weights[slot];
+                    result.selectedItems.add(ids[slot]);
+                    remainingCapacity -= weights[slot];
+                }
+            }
+            return result;
+        }
+        
+        // Lower ratio, or the same ratio and a higher id
+        private boolean worse(int a, int b) {
+            int cmp = Double.compare(ratios[a], ratios[b]);
+            return cmp < 0 || (cmp == 0 && ids[a] > ids[b]);
+        }
+        
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(heap[i], heap[parent])) break;
+                swap(heap, i, parent);
+                i = parent;
+            }
+        }
+        
+        private void siftDown(int i) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && worse(heap[child + 1], heap[child])) child++;
+                if (!worse(heap[child], heap[i])) break;
+                swap(heap, i, child);
+                i = child;
+            }
+        }
+    }
+    
+    /**
+     * Online, irrevocable admission with the threshold of Zhou, Chakrabarty and Lukose:
+     * with a fraction z of the capacity used, an item that fits is taken if its ratio is at
+     * least psi(z) = (U e / L)^z (L / e). For ratios within [L, U] and items small next to
+     * the capacity this is (ln(U / L) + 1)-competitive. Without given bounds, L and U are
+     * estimated from the first warmup items, which are only observed. O(1) working memory
+     * once selections goes to DISCARD_IDS or another sink instead of the Result's list.
+     */
+    static class ThresholdPolicy implements StreamingPolicy {
+        final int capacity;
+        final int warmup;
+        private double lower = Double.POSITIVE_INFINITY;
+        private double upper = 0;
+        private int seen;
+        private long usedWeight;
+        private final Result result = new Result("0-1 Knapsack - Streaming Online Threshold");
+        IntConsumer selections = result.selectedItems::add; // receives every accepted id
+        
+        ThresholdPolicy(int capacity, int warmup) {
+            this.capacity = capacity;
+            this.warmup = warmup;
+        }
+        
+        ThresholdPolicy(int capacity, double lower, double upper) {
+            this(capacity, 0);
+            this.lower = lower;
+            this.upper = upper;
+        }
+        
+        @Override
+        public void offer(int id, int weight, int value) {
+            if (seen++ < warmup) {
+                if (weight > 0 && value > 0) {
+                    double ratio = (double) value / weight;
+                    lower = Math.min(lower, ratio);
+                    upper = Math.max(upper, ratio);
+                }
+                return;
+            }
+            if (value <= 0 || weight > capacity - usedWeight) return;
+            
+            // Zero-weight items are free; with no ratio range yet, admit first-fit
+            if (weight > 0 && lower <= upper) {
+                double z = (double) usedWeight / capacity;
+                double threshold = Math.pow(upper * Math.E / lower, z) * lower / Math.E;
+                if ((double) value / weight < threshold) return;
+            }
+            usedWeight += weight;
+            result.totalValue += value;
+            result.totalWeight += weight;
+            selections.accept(id);
+        }
+        
+        @Override
+        public Result finish() {
+            return result;
+        }
+    }
+    
+    /**
+     * Online, irrevocable admission at a learned price. The first warmup items are only
+     * observed; the cutoff is the ratio at which that sample, scaled up to the expected
+     * stream length, would just fill the knapsack. Later items that fit are taken if their
+     * ratio reaches the cutoff. Much closer to the offline greedy than the worst-case
+     * threshold when the feed arrives in no particular order; O(warmup) working memory
+     * once selections goes to DISCARD_IDS or another sink instead of the Result's list.
+     */
+    static class SampledThresholdPolicy implements StreamingPolicy {
+        final int capacity;
+        final long expectedItems;
+        private final int[] sampleWeights;
+        private final double[] sampleRatios;
+        private int seen;
+        private double cutoff;
+        private long usedWeight;
+        private final Result result = new Result("0-1 Knapsack - Streaming Sampled Threshold");
+        IntConsumer selections = result.selectedItems::add; // receives every accepted id
+        
+        SampledThresholdPolicy(int capacity, long expectedItems, int warmup) {
+            this.capacity = capacity;
+            this.expectedItems = expectedItems;
+            this.sampleWeights = new int[warmup];
+            this.sampleRatios = new double[warmup];
+        }
+        
+        @Override
+        public void offer(int id, int weight, int value) {
+            int warmup = sampleWeights.length;
+            if (seen < warmup) {
+                sampleWeights[seen] = weight;
+                sampleRatios[seen] = (weight > 0) ? (double) value / weight : 0;
+                if (++seen == warmup) cutoff = learnCutoff();
+                return;
+            }
+            if (value <= 0 || weight > capacity - usedWeight) return;
+            if (weight > 0 && (double) value / weight < cutoff) return;
+            
+            usedWeight += weight;
+            result.totalValue += value;
+            result.totalWeight += weight;
+            selections.accept(id);
+        }
+        
+        // Walks the sample in ratio order until it outweighs its share of the capacity
+        private double learnCutoff() {
+            int warmup = sampleWeights.length;
+            double share = (double) capacity * warmup / Math.max(expectedItems, warmup);
+            int[] order = sortPositions(warmup, (a, b) -> Double.compare(sampleRatios[b], sampleRatios[a]));
+            long weight = 0;
+            for (int i : order) {
+                weight += sampleWeights[i];
+                if (weight > share) return sampleRatios[i];
+            }
+            return 0;
+        }
+        
+        @Override
+        public Result finish() {
+            return result;
+        }
+    }
+    
+    /**
+     * AsciiIntReader's counterpart for streams: reads through a fixed-size buffer, so
+     * memory stays flat however long the input is.
+     */
+    static class StreamIntReader {
+        private final InputStream in;
+        private final byte[] buffer;
+        private int limit;
+        private int pos;
+        private long offset; // input bytes before buffer[0]
+        
+        StreamIntReader(InputStream in, int bufferSize) {
+            this.in = in;
+            this.buffer = new byte[bufferSize];
+        }
+        
+        // Next byte without consuming it, -1 at end of input
+        private int peek() throws IOException {
+            if (pos == limit) {
+                offset += limit;
+                pos = 0;
+                limit = Math.max(0, in.read(buffer));
+                if (limit == 0) return -1;
+            }
+            return buffer[pos] & 0xFF;
+        }
+        
+        // Skips whitespace; true if another token follows
+        boolean hasNext() throws IOException {
+            int c;
+            while ((c = peek()) >= 0 && c <= ' ') {
+                pos++;
+            }
+            return c >= 0;
+        }
+        
+        int nextInt() throws IOException {
+            if (!hasNext()) {
+                throw new IOException("Unexpected end of input at byte " + (offset + pos));
+            }
+            long start = offset + pos;
+            boolean negative = peek() == '-';
+            if (negative) pos++;
+            
+            long value = 0;
+            int digits = 0;
+            int c;
+            while ((c = peek()) >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new IOException("Integer out of range at byte " + start);
+                }
+                pos++;
+                digits++;
+            }
+            
+            // The token must end at whitespace or end of input
+            if (digits == 0 || c > ' ') {
+                throw new IOException("Expected an integer at byte " + start);
+            }
+            if (negative) value = -value;
+            if (value > Integer.MAX_VALUE) {
+                throw new IOException("Integer out of range at byte " + start);
+            }
+            return (int) value;
+        }
+    }
+    
+    /**
+     * Streams each file through every policy and reports the gap (%) to the offline
+     * zeroOneKnapsackByRatio. "-" instead streams one instance from standard input through
+     * the named policy and prints its result, with printIds writing each selected id to
+     * standard output as it is accepted. Only totals are kept otherwise, so the threshold
+     * policies run in constant memory. warmup < 0 picks n / 20, at most 1000.
+     */
+    static void runStreamComparison(List<String> inputs, int k, int warmup, String stdinPolicy, boolean printIds)
+            throws IOException {
+        PrintStream idOut = new PrintStream(new BufferedOutputStream(System.out, 1 << 16), false);
+        IntConsumer ids = printIds ? idOut::println : DISCARD_IDS;
+        Map<String, BiFunction<Integer, Integer, StreamingPolicy>> policies = new LinkedHashMap<>();
+        policies.put("top", (n, capacity) -> new TopRatioPolicy(capacity, k));
+        policies.put("sampled", (n, capacity) -> {
+            SampledThresholdPolicy policy =
+                new SampledThresholdPolicy(capacity, n, (warmup >= 0) ? warmup : Math.min(1000, n / 20));
+            policy.selections = ids;
+            return policy;
+        });
+        policies.put("zcl", (n, capacity) -> {
+            ThresholdPolicy policy = new ThresholdPolicy(capacity, (warmup >= 0) ? warmup : Math.min(1000, n / 20));
+            policy.selections = ids;
+            return policy;
+        });
+        
+        if (inputs.equals(List.of("-"))) {
+            if (!policies.containsKey(stdinPolicy)) {
+                throw new IllegalArgumentException("Unknown policy: " + stdinPolicy + " (known: " + policies.keySet() + ")");
+            }
+            Result result = solveStream(System.in, policies.get(stdinPolicy));
+            if (printIds) {
+                // top-k only knows its selection at the end; it holds at most k ids
+                result.selectedItems.forEach(idOut::println);
+                idOut.flush();
+            }
+            printResult(result, false);
+            return;
+        }
+        
+        StringBuilder header = new StringBuilder(String.format("%-30s %9s %12s", "File", "Items", "Offline"));
+        for (String name : policies.keySet()) {
+            header.append(String.format(" %12s %8s", name.equals("top") ? "top-" + k : name, "Gap (%)"));
+        }
+        System.out.println(header);
+        System.out.println("-".repeat(header.length()));
+        for (String input : inputs) {
+            for (Path file : BatchRunner.expand(input)) {
+                StringBuilder line = new StringBuilder();
+                try {
+                    ColumnarDataset data = ColumnarDataset.load(file.toString());
+                    Result offline = zeroOneKnapsackByRatio(data);
+                    line.append(String.format("%-30s %9d %12.0f", file.getFileName(), data.n, offline.totalValue));
+                    for (BiFunction<Integer, Integer, StreamingPolicy> policy : policies.values()) {
+                        Result streamed;
+                        try (InputStream in = Files.newInputStream(file)) {
+                            streamed = solveStream(in, policy);
+                        }
+                        line.append(String.format(" %12.0f %8.2f", streamed.totalValue, gapPercent(offline, streamed)));
+                    }
+                } catch (IOException e) {
+                    System.out.println("Skipping " + file + ": " + e.getMessage());
+                    continue;
+                }
+                System.out.println(line);
+            }
+        }
+    }
+    
+    private static double gapPercent(Result offline, Result streamed) {
+        return (offline.totalValue > 0) ? (offline.totalValue - streamed.totalValue) / offline.totalValue * 100 : 0;
+    }
+    
+    // ==================== SMALL-INSTANCE BATCH KERNEL ====================
+    
+    /**
+     * Many small instances (up to 25 items each) packed into flat arrays and solved in one
+     * pass, with no per-instance objects. Instance k owns items offsets[k]..offsets[k+1]);
+     * a solution is a bitmask over the instance's own item positions. The inner loops are
+     * written branch-free (conditional moves, mask arithmetic) over primitive arrays so C2
+     * can keep them tight; the incubating Vector API is not used, as it would need
+     * --add-modules on every run and its API still changes between releases.
+     */
+    static final class SmallBatch {
+        static final int MAX_ITEMS = 25;
+        // Exact solves use the capacity DP only while its table of rows stays this small
+        static final int DP_MAX_CELLS = 1 << 20;
+        
+        enum Order { RATIO, VALUE, WEIGHT }
+        
+        int count;
+        int[] offsets = new int[16];
+        int[] capacities = new int[16];
+        int[] weights = new int[64];
+        int[] values = new int[64];
+        
+        static final class Solutions {
+            final long[] values;
+            final long[] weights;
+            final int[] masks;
+            
+            Solutions(int count) {
+                values = new long[count];
+                weights = new long[count];
+                masks = new int[count];
+            }
+        }
+        
+        static SmallBatch of(List<ColumnarDataset> instances) {
+            SmallBatch batch = new SmallBatch();
+            for (ColumnarDataset data : instances) {
+                batch.add(data.capacity, data.weights, data.values);
+            }
+            return batch;
+        }
+        
+        void add(int capacity, int[] itemWeights, int[] itemValues) {
+            int n = itemWeights.length;
+            if (n > MAX_ITEMS) {
+                throw new IllegalArgumentException("Instance has " + n + " items; the batch kernel takes at most " + MAX_ITEMS);
+            }
+            if (count + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                capacities = Arrays.copyOf(capacities, capacities.length * 2);
+            }
+            int start = offsets[count];
+            if (start + n > weights.length) {
+                int size = Math.max(weights.length * 2, start + n);
+                weights = Arrays.copyOf(weights, size);
+                values = Arrays.copyOf(values, size);
+            }
+            System.arraycopy(itemWeights, 0, weights, start, n);
+            System.arraycopy(itemValues, 0, values, start, n);
+            capacities[count] = capacity;
+            offsets[++count] = start + n;
+        }
+        
+        // Greedy 0-1 in the given order; ties keep item order, as in the per-instance strategies
+        Solutions solveGreedy(Order order) {
+            Solutions out = new Solutions(count);
+            int[] local = new int[MAX_ITEMS];
+            double[] keys = new double[MAX_ITEMS];
+            for (int k = 0; k < count; k++) {
+                int start = offsets[k];
+                int n = offsets[k + 1] - start;
+                sortLocal(order, start, n, local, keys);
+                
+                int remaining = capacities[k];
+                long value = 0;
+                int mask = 0;
+                for (int j = 0; j < n; j++) {
+                    int i = local[j];
+                    int w = weights[start + i];
+                    int take = ((remaining - w) >>> 31) ^ 1; // 1 if w <= remaining
+                    remaining -= -take & w;
+                    value += -take & values[start + i];
+                    mask |= take << i;
+                }
+                out.values[k] = value;
+                out.weights[k] = capacities[k] - remaining;
+                out.masks[k] = mask;
+            }
+            return out;
+        }
+        
+        // Optimal fractional value (ratio order, last item in part); no masks
+        double[] solveFractional() {
+            double[] out = new double[count];
+            int[] local = new int[MAX_ITEMS];
+            double[] keys = new double[MAX_ITEMS];
+            for (int k = 0; k < count; k++) {
+                int start = offsets[k];
+                int n = offsets[k + 1] - start;
+                sortLocal(Order.RATIO, start, n, local, keys);
+                
+                double remaining = capacities[k];
+                double value = 0;
+                for (int j = 0; j < n; j++) {
+                    int i = local[j];
+                    double w = weights[start + i];
+                    if (w > remaining) {
+                        value += values[start + i] * (remaining / w);
+                        break;
+                    }
+                    value += values[start + i];
+                    remaining -= w;
+                }
+                out[k] = value;
+            }
+            return out;
+        }
+        
+        /**
+         * Exact 0-1 optimum of every instance. Per instance the cheapest of three kernels
+         * runs: subset enumeration by doubling (2^n sums), a capacity DP over int rows while
+         * n * (capacity + 1) stays small, or meet-in-the-middle over two 2^(n/2) halves.
+         * Items heavier than the capacity are dropped first.
+         */
+        Solutions solveExact() {
+            Solutions out = new Solutions(count);
+            Scratch scratch = new Scratch();
+            int[] kept = new int[MAX_ITEMS];
+            
+            for (int k = 0; k < count; k++) {
+                int start = offsets[k];
+                int n = offsets[k + 1] - start;
+                int capacity = capacities[k];
+                int m = 0;
+                long keptValue = 0;
+                for (int i = 0; i < n; i++) {
+                    kept[m] = i;
+                    int fits = (weights[start + i] <= capacity) ? 1 : 0;
+                    keptValue += -fits & values[start + i];
+                    m += fits;
+                }
+                
+                // Rough relative costs (about one unit per DP cell), fitted on the f* instances
+                long enumerateCost = 4L << m;
+                long dpCells = (long) (m + 1) * (capacity + 1L);
+                long dpCost = (dpCells <= DP_MAX_CELLS && keptValue <= Integer.MAX_VALUE) ? dpCells : Long.MAX_VALUE;
+                long splitCost = (24L << ((m + 1) / 2)) + 500;
+                int keptMask;
+                if (enumerateCost <= Math.min(dpCost, splitCost)) {
+                    keptMask = enumerate(start, kept, m, capacity, scratch);
+                } else if (dpCost <= splitCost) {
+                    keptMask = capacityDP(start, kept, m, capacity, scratch);
+                } else {
+                    keptMask = meetInTheMiddle(start, kept, m, capacity, scratch);
+                }
+                
+                // Back from positions among the kept items to the instance's own positions
+                int mask = 0;
+                long value = 0;
+                long weight = 0;
+                for (int j = 0; j < m; j++) {
+                    int bit = (keptMask >>> j) & 1;
+                    int i = kept[j];
+                    mask |= bit << i;
+                    value += -bit & values[start + i];
+                    weight += -bit & weights[start + i];
+                }
+                out.values[k] = value;
+                out.weights[k] = weight;
+                out.masks[k] = mask;
+            }
+            return out;
+        }
+        
+        // Working arrays of solveExact, grown on demand and reused across instances
+        private static final class Scratch {
+            long[] sumWeights = new long[0];
+            long[] sumValues = new long[0];
+            long[] sortedWeights = new long[0];
+            long[] sortedValues = new long[0];
+            int[] sortedMasks = new int[0];
+            long[] halfWeights = new long[0];
+            long[] halfValues = new long[0];
+            int[] halfMasks = new int[0];
+            long[] mergedWeights = new long[0];
+            long[] mergedValues = new long[0];
+            int[] mergedMasks = new int[0];
+            int[][] rows = new int[MAX_ITEMS + 1][0];
+            
+            void ensureSums(int size) {
+                if (sumWeights.length < size) {
+                    sumWeights = new long[size];
+                    sumValues = new long[size];
+                }
+            }
+            
+            void ensureSplit(int size) {
+                if (sortedWeights.length < size) {
+                    sortedWeights = new long[size];
+                    sortedValues = new long[size];
+                    sortedMasks = new int[size];
+                    halfWeights = new long[size];
+                    halfValues = new long[size];
+                    halfMasks = new int[size];
+                    mergedWeights = new long[size];
+                    mergedValues = new long[size];
+                    mergedMasks = new int[size];
+                }
+            }
+        }
+        
+        // All 2^m subset sums by doubling, then a branch-free arg-max over the feasible ones
+        private int enumerate(int start, int[] kept, int m, int capacity, Scratch scratch) {
+            scratch.ensureSums(1 << m);
+            long[] sumWeights = scratch.sumWeights;
+            long[] sumValues = scratch.sumValues;
+            int size = subsetSums(start, kept, 0, m, sumWeights, sumValues);
+            
+            long best = 0;
+            int bestMask = 0;
+            for (int s = 0; s < size; s++) {
+                boolean better = sumWeights[s] <= capacity & sumValues[s] > best;
+                best = better ? sumValues[s] : best;
+                bestMask = better ? s : bestMask;
+            }
+            return bestMask;
+        }
+        
+        // Sums of every subset of kept[from..to), subset s at index s; returns 2^(to - from)
+        private int subsetSums(int start, int[] kept, int from, int to, long[] sumWeights, long[] sumValues) {
+            sumWeights[0] = 0;
+            sumValues[0] = 0;
+            int size = 1;
+            for (int j = from; j < to; j++) {
+                long w = weights[start + kept[j]];
+                long v = values[start + kept[j]];
+                for (int s = 0; s < size; s++) {
+                    sumWeights[size + s] = sumWeights[s] + w;
+                    sumValues[size + s] = sumValues[s] + v;
+                }
+                size <<= 1;
+            }
+            return size;
+        }
+        
+        // rows[j][c]: best value of the first j kept items within capacity c; rows differ where item j-1 is taken
+        private int capacityDP(int start, int[] kept, int m, int capacity, Scratch scratch) {
+            int[][] rows = scratch.rows;
+            for (int j = 0; j <= m; j++) {
+                if (rows[j].length <= capacity) {
+                    rows[j] = new int[capacity + 1];
+                }
+            }
+            Arrays.fill(rows[0], 0, capacity + 1, 0);
+            for (int j = 0; j < m; j++) {
+                int[] row = rows[j];
+                int[] next = rows[j + 1];
+                int w = weights[start + kept[j]];
+                int v = values[start + kept[j]];
+                System.arraycopy(row, 0, next, 0, w);
+                for (int c = w; c <= capacity; c++) {
+                    next[c] = Math.max(row[c], row[c - w] + v);
+                }
+            }
+            
+            int mask = 0;
+            int c = capacity;
+            for (int j = m - 1; j >= 0; j--) {
+                if (rows[j + 1][c] != rows[j][c]) {
+                    mask |= 1 << j;
+                    c -= weights[start + kept[j]];
+                }
+            }
+            return mask;
+        }
+        
+        /**
+         * Splits the items in two halves and lists each half's subsets sorted by weight,
+         * the second with a running best value. Walking the first half by rising weight
+         * while a pointer walks the second down pairs every feasible subset with the best
+         * partner that still fits.
+         */
+        private int meetInTheMiddle(int start, int[] kept, int m, int capacity, Scratch scratch) {
+            int h = m / 2;
+            scratch.ensureSplit(1 << (m - h));
+            int sizeA = sortedSubsetSums(start, kept, 0, h, scratch);
+            long[] weightA = scratch.halfWeights;
+            long[] valueA = scratch.halfValues;
+            int[] maskA = scratch.halfMasks;
+            System.arraycopy(scratch.sortedWeights, 0, weightA, 0, sizeA);
+            System.arraycopy(scratch.sortedValues, 0, valueA, 0, sizeA);
+            System.arraycopy(scratch.sortedMasks, 0, maskA, 0, sizeA);
+            int sizeB = sortedSubsetSums(start, kept, h, m, scratch);
+            long[] weightB = scratch.sortedWeights;
+            long[] valueB = scratch.sortedValues;
+            int[] maskB = scratch.sortedMasks;
+            
+            // Running best over the lighter subsets, in place
+            for (int i = 1; i < sizeB; i++) {
+                boolean keep = valueB[i - 1] >= valueB[i];
+                valueB[i] = keep ? valueB[i - 1] : valueB[i];
+                maskB[i] = keep ? maskB[i - 1] : maskB[i];
+            }
+            
+            long best = -1;
+            int bestMask = 0;
+            int b = sizeB - 1;
+            for (int a = 0; a < sizeA && weightA[a] <= capacity; a++) {
+                long room = capacity - weightA[a];
+                while (weightB[b] > room) b--; // stops at the empty subset, which weighs 0
+                long value = valueA[a] + valueB[b];
+                boolean better = value > best;
+                best = better ? value : best;
+                bestMask = better ? maskA[a] | maskB[b] : bestMask;
+            }
+            return bestMask;
+        }
+        
+        /**
+         * Subsets of kept[from..to) sorted by weight into the scratch's sorted arrays, masks
+         * over kept positions. Adding an item merges the list with a shifted copy of itself,
+         * so no sort is needed (Horowitz-Sahni). Returns 2^(to - from).
+         */
+        private int sortedSubsetSums(int start, int[] kept, int from, int to, Scratch scratch) {
+            long[] w = scratch.sortedWeights;
+            long[] v = scratch.sortedValues;
+            int[] mask = scratch.sortedMasks;
+            long[] mergedW = scratch.mergedWeights;
+            long[] mergedV = scratch.mergedValues;
+            int[] mergedMask = scratch.mergedMasks;
+            w[0] = 0;
+            v[0] = 0;
+            mask[0] = 0;
+            int size = 1;
+            for (int j = from; j < to; j++) {
+                long itemWeight = weights[start + kept[j]];
+                long itemValue = values[start + kept[j]];
+                int bit = 1 << j;
+                int x = 0;
+                int y = 0;
+                for (int out = 0; out < 2 * size; out++) {
+                    boolean takeOld = y == size || (x < size && w[x] <= w[y] + itemWeight);
+                    if (takeOld) {
+                        mergedW[out] = w[x];
+                        mergedV[out] = v[x];
+                        mergedMask[out] = mask[x++];
+                    } else {
+                        mergedW[out] = w[y] + itemWeight;
+                        mergedV[out] = v[y] + itemValue;
+                        mergedMask[out] = mask[y++] | bit;
+                    }
+                }
+                long[] swap = w; w = mergedW; mergedW = swap;
+                swap = v; v = mergedV; mergedV = swap;
+                int[] swapMask = mask; mask = mergedMask; mergedMask = swapMask;
+                size *= 2;
+            }
+            if (w != scratch.sortedWeights) {
+                System.arraycopy(w, 0, scratch.sortedWeights, 0, size);
+                System.arraycopy(v, 0, scratch.sortedValues, 0, size);
+                System.arraycopy(mask, 0, scratch.sortedMasks, 0, size);
+            }
+            return size;
+        }
+        
+        // Stable insertion sort of the instance's positions 0..n-1 into local, highest key first
+        private void sortLocal(Order order, int start, int n, int[] local, double[] keys) {
+            for (int i = 0; i < n; i++) {
+                int w = weights[start + i];
+                int v = values[start + i];
+                keys[i] = (order == Order.RATIO) ? Item.ratioOf(w, v)
+                        : (order == Order.VALUE) ? v : -w;
+            }
+            for (int i = 0; i < n; i++) {
+                double key = keys[i];
+                int j = i;
+                while (j > 0 && key > keys[local[j - 1]]) {
+                    local[j] = local[j - 1];
+                    j--;
+                }
+                local[j] = i;
+            }
+        }
+    }
+    
+    // ==================== STRATEGY REGISTRY ====================
+    
+    // Every strategy by short name, over the columnar representation
+    static final Map<String, Function<ColumnarDataset, Result>> STRATEGIES = new LinkedHashMap<>();
+    
+    // The original nine strategies over Dataset, including the cost of copying the items
+    static final Map<String, Function<Dataset, Result>> LIST_STRATEGIES = new LinkedHashMap<>();
+    
+    // Strategies that take a time budget, in nanoseconds; STRATEGIES holds them at their default budget
+    static final Map<String, BiFunction<ColumnarDataset, Long, Result>> BUDGETED_STRATEGIES = new LinkedHashMap<>();
+    
+    static {
+        STRATEGIES.put("frac-ratio", KnapsackSolver::fractionalKnapsackByRatio);
+        STRATEGIES.put("frac-value", KnapsackSolver::fractionalKnapsackByValue);
+        STRATEGIES.put("frac-weight", KnapsackSolver::fractionalKnapsackByWeight);
+        STRATEGIES.put("frac-ratio-linear", KnapsackSolver::fractionalKnapsackByRatioLinear);
+        STRATEGIES.put("zo-ratio", KnapsackSolver::zeroOneKnapsackByRatio);
+        STRATEGIES.put("zo-value", KnapsackSolver::zeroOneKnapsackByValue);
+        STRATEGIES.put("zo-weight", KnapsackSolver::zeroOneKnapsackByWeight);
+        STRATEGIES.put("random", d -> randomSamplingKnapsack(d, SeededRandom.of(42)));
+        STRATEGIES.put("mc1", d -> monteCarloKnapsack1(d, 1000));
+        STRATEGIES.put("mc2", d -> monteCarloKnapsack2(d, 1000));
+        STRATEGIES.put("mc1-anytime", d -> BUDGETED_STRATEGIES.get("mc1-anytime").apply(d, 100_000_000L));
+        STRATEGIES.put("mc2-anytime", d -> BUDGETED_STRATEGIES.get("mc2-anytime").apply(d, 100_000_000L));
+        STRATEGIES.put("zo-ratio-ls", d -> withLocalSearch(d, zeroOneKnapsackByRatio(d)));
+        STRATEGIES.put("random-ls", d -> withLocalSearch(d, randomSamplingKnapsack(d, SeededRandom.of(42))));
+        STRATEGIES.put("mc1-ls", d -> withLocalSearch(d, monteCarloKnapsack1(d, 1000)));
+        STRATEGIES.put("mc2-ls", d -> withLocalSearch(d, monteCarloKnapsack2(d, 1000)));
+        STRATEGIES.put("greedy-best", d -> greedyEnsemble(d).best);
+        STRATEGIES.put("exact-dp", KnapsackSolver::exactKnapsackDP);
+        STRATEGIES.put("core", d -> BUDGETED_STRATEGIES.get("core").apply(d, 10_000_000_000L));
+        STRATEGIES.put("bnb", d -> BUDGETED_STRATEGIES.get("bnb").apply(d, 1_000_000_000L));
+        
+        BUDGETED_STRATEGIES.put("mc1-anytime", (d, budget) -> monteCarloKnapsack1(d, budget, Long.MAX_VALUE));
+        BUDGETED_STRATEGIES.put("mc2-anytime", (d, budget) -> monteCarloKnapsack2(d, budget, Long.MAX_VALUE));
+        BUDGETED_STRATEGIES.put("bnb", (d, budget) -> branchAndBoundKnapsack(d, Long.MAX_VALUE, budget));
+        BUDGETED_STRATEGIES.put("core", KnapsackSolver::coreKnapsack);
+        
+        // Registry runs are what batch, serve and bench execute, so they report to Metrics
+        STRATEGIES.replaceAll((name, strategy) -> data -> Metrics.record(name, data, strategy));
+        
+        LIST_STRATEGIES.put("frac-ratio", KnapsackSolver::fractionalKnapsackByRatio);
+        LIST_STRATEGIES.put("frac-value", KnapsackSolver::fractionalKnapsackByValue);
+        LIST_STRATEGIES.put("frac-weight", KnapsackSolver::fractionalKnapsackByWeight);
+        LIST_STRATEGIES.put("zo-ratio", KnapsackSolver::zeroOneKnapsackByRatio);
+        LIST_STRATEGIES.put("zo-value", KnapsackSolver::zeroOneKnapsackByValue);
+        LIST_STRATEGIES.put("zo-weight", KnapsackSolver::zeroOneKnapsackByWeight);
+        LIST_STRATEGIES.put("random", d -> randomSamplingKnapsack(d, SeededRandom.of(42)));
+        LIST_STRATEGIES.put("mc1", d -> monteCarloKnapsack1(d, 1000));
+        LIST_STRATEGIES.put("mc2", d -> monteCarloKnapsack2(d, 1000));
+    }
+    
+    // ==================== SELF-CHECKS ====================
+    
+    /**
+     * Solves random instances with core and exact-dp and reports every value that differs.
+     * Weights are small and the types include strongly correlated p = w + 3, where the
+     * LP bound's fractional part decides which items the reduced costs may fix.
+     */
+    public static void checkCoreAgainstDP(int instances, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        int mismatches = 0;
+        int unproven = 0;
+        for (int k = 0; k < instances; k++) {
+            int n = 300 + rand.nextInt(1501);
+            int range = 5 + rand.nextInt(60);
+            int type = rand.nextInt(3);
+            int[] weights = new int[n];
+            int[] values = new int[n];
+            long totalWeight = 0;
+            for (int i = 0; i < n; i++) {
+                weights[i] = 1 + rand.nextInt(range);
+                values[i] = (type == 0) ? 1 + rand.nextInt(range)
+                          : (type == 1) ? weights[i] + 3
+                          : Math.max(1, weights[i] - 2 + rand.nextInt(5));
+                totalWeight += weights[i];
+            }
+            int capacity = (int) Math.max(1, totalWeight * (0.05 + 0.5 * rand.nextDouble()));
+            ColumnarDataset data = new ColumnarDataset("random-" + k, capacity, weights, values);
+            
+            Result core = coreKnapsack(data, 10_000_000_000L);
+            Result exact = exactKnapsackDP(data);
+            if (!core.provenOptimal) unproven++;
+            if (core.totalValue != exact.totalValue) {
+                mismatches++;
+                System.out.printf("Instance %d (n %d, type %d, capacity %d): core %.0f%s, exact-dp %.0f\n",
+                                  k, n, type, capacity, core.totalValue,
+                                  core.provenOptimal ? " (proven)" : "", exact.totalValue);
+            }
+        }
+        System.out.printf("%d instances (seed %d): %d mismatches, %d unproven\n", instances, seed, mismatches, unproven);
+    }
+    
+    /**
+     * Packs copies of the small instances among the files into one SmallBatch and checks
+     * every kernel value against exact-dp and the per-instance greedy strategies. The
+     * timings live in SmallBatchBenchmark.
+     */
+    public static void checkSmallBatch(List<String> filenames, int copies) {
+        List<ColumnarDataset> distinct = new ArrayList<>();
+        for (String filename : filenames) {
+            try {
+                ColumnarDataset data = ColumnarDataset.load(filename);
+                if (data.n <= SmallBatch.MAX_ITEMS) distinct.add(data);
+            } catch (IOException e) {
+                System.out.println("Skipping " + filename + ": " + e.getMessage());
+            }
+        }
+        if (distinct.isEmpty()) {
+            System.out.println("No instances with at most " + SmallBatch.MAX_ITEMS + " items");
+            return;
+        }
+        List<ColumnarDataset> instances = new ArrayList<>();
+        for (int c = 0; c < copies; c++) {
+            instances.addAll(distinct);
+        }
+        SmallBatch batch = SmallBatch.of(instances);
+        
+        // Values must match the per-instance strategies; exact masks may pick another optimum
+        String[] checked = {"exact-dp", "zo-ratio", "zo-value", "zo-weight", "frac-ratio"};
+        Object[] kernelResults = {batch.solveExact(), batch.solveGreedy(SmallBatch.Order.RATIO),
+                                  batch.solveGreedy(SmallBatch.Order.VALUE),
+                                  batch.solveGreedy(SmallBatch.Order.WEIGHT), batch.solveFractional()};
+        int mismatches = 0;
+        for (int s = 0; s < checked.length; s++) {
+            double[] expected = new double[distinct.size()];
+            for (int k = 0; k < distinct.size(); k++) {
+                expected[k] = STRATEGIES.get(checked[s]).apply(distinct.get(k)).totalValue;
+            }
+            for (int k = 0; k < batch.count; k++) {
+                double actual = (kernelResults[s] instanceof double[])
+                    ? ((double[]) kernelResults[s])[k] : ((SmallBatch.Solutions) kernelResults[s]).values[k];
+                if (Math.abs(expected[k % distinct.size()] - actual) > 1e-6) {
+                    mismatches++;
+                    System.out.printf("Mismatch: %s on instance %d: expected %.2f, kernel %.2f\n",
+                                      checked[s], k, expected[k % distinct.size()], actual);
+                }
+            }
+        }
+        System.out.printf("Small-instance batch: %d instances (%d distinct x %d copies), %d mismatches\n",
+                          batch.count, distinct.size(), copies, mismatches);
+    }
+    
+    // Bundled instance files in the current directory: knapPI_1/2/3 by size, then the f* set
+    static List<String> bundledInstanceFiles() {
+        File[] files = new File(".").listFiles((dir, name) ->
+            name.endsWith(".txt") && (name.startsWith("knapPI_") || name.matches("f\\d+_l-d_kp_.*")));
+        List<String> names = new ArrayList<>();
+        if (files != null) {
+            for (File f : files) {
+                names.add(f.getName());
+            }
+        }
+        names.sort(Comparator.comparing((String name) -> name.startsWith("f"))
+                             .thenComparing(name -> name.replaceAll("_\\d+_1000_1\\.txt$", ""))
+                             .thenComparingInt(name -> instanceSize(name)));
+        return names;
+    }
+    
+    // Item count from a bundled file name (knapPI_<type>_<n>_..., f<k>_l-d_kp_<n>_...)
+    private static int instanceSize(String name) {
+        String[] parts = name.split("_");
+        try {
+            return Integer.parseInt(parts[name.startsWith("f") ? 3 : 2]);
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+    
+    // ==================== BATCH MODE ====================
+    
+    /**
+     * Headless batch solver: solves many instance files concurrently and streams
+     * one CSV or JSON line per (file, strategy). Files are loaded inside the worker
+     * tasks and the task queue is bounded, so memory stays flat however many files
+     * are queued.
+     */
+    static class BatchRunner {
+        final List<String> strategies;
+        final boolean json;
+        final PrintStream out;
+        
+        BatchRunner(List<String> strategies, boolean json, PrintStream out) {
+            for (String name : strategies) {
+                if (!STRATEGIES.containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown strategy: " + name + " (known: " + STRATEGIES.keySet() + ")");
+                }
+            }
+            this.strategies = strategies;
+            this.json = json;
+            this.out = out;
+        }
+        
+        void run(List<String> inputs, int threads, int queueSize) throws IOException, InterruptedException {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new ThreadPoolExecutor.CallerRunsPolicy());
+            if (!json) {
+                out.println("file,n,capacity,strategy,value,weight,time_ms,optimality");
+            }
+            try {
+                for (String input : inputs) {
+                    for (Path file : expand(input)) {
+                        executor.execute(() -> solveFile(file));
+                    }
+                }
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+                out.flush();
+            }
+        }
+        
+        // A directory gives its *.txt files, a path with * or ? is matched as a glob (skipping
+        // the .kpb sidecars of matched text files), anything else is a file
+        static List<Path> expand(String input) throws IOException {
+            List<Path> files = new ArrayList<>();
+            Path path = Paths.get(input);
+            if (input.contains("*") || input.contains("?")) {
+                Path dir = (path.getParent() != null) ? path.getParent() : Paths.get(".");
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, path.getFileName().toString())) {
+                    for (Path file : stream) {
+                        if (Files.isRegularFile(file) && !isSidecar(file)) files.add(file);
+                    }
+                }
+            } else if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.txt")) {
+                    for (Path file : stream) {
+                        files.add(file);
+                    }
+                }
+            } else {
+                files.add(path);
+            }
+            Collections.sort(files);
+            return files;
+        }
+        
+        // x.txt.kpb next to x.txt; standalone .kpb files from convert are instances of their own
+        private static boolean isSidecar(Path file) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(BinaryInstance.EXTENSION)) return false;
+            String source = name.substring(0, name.length() - BinaryInstance.EXTENSION.length());
+            return Files.isRegularFile(file.resolveSibling(source));
+        }
+        
+        private void solveFile(Path file) {
+            ColumnarDataset data;
+            try {
+                data = ColumnarDataset.load(file.toString());
+            } catch (IOException e) {
+                System.err.println("Skipping " + file + ": " + e.getMessage());
+                return;
+            }
+            
+            StringBuilder lines = new StringBuilder();
+            for (String name : strategies) {
+                Result r;
+                try {
+                    r = STRATEGIES.get(name).apply(data);
+                } catch (RuntimeException e) {
+                    // One failing strategy (e.g. exact-dp on a huge capacity) must not drop the file's other rows
+                    System.err.println("Failed " + file + " with " + name + ": " + e);
+                    continue;
+                }
+                double ratio = r.getOptimalityRatio();
+                String optimality = Double.isNaN(ratio) ? "" : String.format(Locale.ROOT, "%.4f", ratio);
+                if (json) {
+                    lines.append(String.format(Locale.ROOT, "{\"file\":\"%s\",\"n\":%d,\"capacity\":%d,\"strategy\":\"%s\","
+                                               + "\"value\":%.2f,\"weight\":%.2f,\"time_ms\":%.3f,\"optimality\":%s",
+                                               jsonEscape(file.toString()), data.n, data.capacity, name,
+                                               r.totalValue, r.totalWeight, r.executionTime / 1_000_000.0,
+                                               optimality.isEmpty() ? "null" : optimality));
+                    if (r.generator != null) {
+                        lines.append(String.format(Locale.ROOT, ",\"rng\":\"%s\",\"seed\":%d", r.generator, r.seed));
+                    }
+                    lines.append("}\n");
+                } else {
+                    lines.append(String.format(Locale.ROOT, "%s,%d,%d,%s,%.2f,%.2f,%.3f,%s\n",
+                                               csvEscape(file.toString()), data.n, data.capacity, name,
+                                               r.totalValue, r.totalWeight, r.executionTime / 1_000_000.0,
+                                               optimality));
+                }
+            }
+            
+            // One write per file keeps the lines of concurrent files from interleaving
+            synchronized (out) {
+                out.print(lines);
+                out.flush();
+            }
+        }
+        
+        private static String csvEscape(String field) {
+            if (field.contains(",") || field.contains("\"") || field.contains("\n") || field.contains("\r")) {
+                return "\"" + field.replace("\"", "\"\"") + "\"";
+            }
+            return field;
+        }
+        
+        static String jsonEscape(String field) {
+            StringBuilder escaped = new StringBuilder(field.length());
+            for (int i = 0; i < field.length(); i++) {
+                char c = field.charAt(i);
+                if (c == '"' || c == '\\') {
+                    escaped.append('\\').append(c);
+                } else if (c < 0x20) {
+                    escaped.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                } else {
+                    escaped.append(c);
+                }
+            }
+            return escaped.toString();
+        }
+    }
+    
+    // ==================== SOLVER SERVICE ====================
+    
+    /**
+     * Long-lived solver on the JDK's built-in HTTP server, bound to the loopback address.
+     * Parsed instances stay in an LRU cache bounded by size and keyed by absolute path
+     * plus modification time, so repeated queries skip parsing and sorting and an edited
+     * file is picked up on its next request. Identical concurrent requests (instance,
+     * strategy, capacity and budget) share one computation through an in-flight future.
+     *
+     *   GET /solve?file=PATH&strategy=NAME[&capacity=C][&budget=MS][&items=true]
+     *   GET /strategies
+     *   GET /stats
+     */
+    static class SolverService {
+        final long maxCacheBytes;
+        final ExecutorService executor;
+        private final LinkedHashMap<String, ColumnarDataset> instances = new LinkedHashMap<>(16, 0.75f, true);
+        private final ConcurrentHashMap<String, CompletableFuture<ColumnarDataset>> loading = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, CompletableFuture<Result>> solving = new ConcurrentHashMap<>();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong cacheHits = new AtomicLong();
+        private final AtomicLong loads = new AtomicLong();
+        private HttpServer server;
+        
+        SolverService(long maxCacheBytes) {
+            this.maxCacheBytes = maxCacheBytes;
+            this.executor = newRequestExecutor();
+        }
+        
+        // A virtual thread per task where the runtime has them (Java 21+), otherwise a cached pool
+        static ExecutorService newRequestExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return Executors.newCachedThreadPool(task -> {
+                    Thread thread = new Thread(task, "solver-request");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        
+        void start(int port) throws IOException {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/solve", this::handleSolve);
+            server.createContext("/strategies", exchange ->
+                respond(exchange, 200, "[\"" + String.join("\",\"", STRATEGIES.keySet()) + "\"]"));
+            server.createContext("/stats", exchange -> respond(exchange, 200, stats()));
+            server.setExecutor(executor);
+            server.start();
+            Metrics.registerMBean();
+        }
+        
+        void stop() {
+            if (server != null) server.stop(0);
+            executor.shutdownNow();
+        }
+        
+        int port() {
+            return server.getAddress().getPort();
+        }
+        
+        /**
+         * Solves, or joins an identical solve already running. capacity < 0 keeps the
+         * file's capacity; budgetNanos < 0 runs the strategy at its default budget.
+         */
+        CompletableFuture<Result> solve(String file, String strategy, int capacity, long budgetNanos)
+                throws IOException {
+            if (!STRATEGIES.containsKey(strategy)) {
+                throw new IllegalArgumentException("Unknown strategy: " + strategy + " (known: " + STRATEGIES.keySet() + ")");
+            }
+            if (budgetNanos >= 0 && !BUDGETED_STRATEGIES.containsKey(strategy)) {
+                throw new IllegalArgumentException("Strategy " + strategy + " takes no budget (budgeted: "
+                                                   + BUDGETED_STRATEGIES.keySet() + ")");
+            }
+            requests.incrementAndGet();
+            Path path = Paths.get(file).toAbsolutePath().normalize();
+            String instanceKey = path + "@" + Files.getLastModifiedTime(path).toMillis();
+            String key = instanceKey + "|" + strategy + "|" + capacity + "|" + budgetNanos;
+            
+            CompletableFuture<Result> mine = new CompletableFuture<>();
+            CompletableFuture<Result> running = solving.putIfAbsent(key, mine);
+            if (running != null) {
+                coalesced.incrementAndGet();
+                return running;
+            }
+            executor.execute(() -> {
+                try {
+                    ColumnarDataset data = instance(path, instanceKey);
+                    if (capacity >= 0) data = data.withCapacity(capacity);
+                    mine.complete(budgetNanos >= 0
+                        ? Metrics.record(strategy, data, d -> BUDGETED_STRATEGIES.get(strategy).apply(d, budgetNanos))
+                        : STRATEGIES.get(strategy).apply(data));
+                } catch (Throwable t) {
+                    mine.completeExceptionally(t);
+                } finally {
+                    solving.remove(key, mine);
+                    // The solve may have filled derived caches (orderings, prefix sums, pools)
+                    synchronized (instances) {
+                        evict();
+                    }
+                }
+            });
+            return mine;
+        }
+        
+        // Cached instance, or a load shared with any other request for the same file version
+        ColumnarDataset instance(Path path, String instanceKey) throws IOException {
+            synchronized (instances) {
+                ColumnarDataset data = instances.get(instanceKey);
+                if (data != null) {
+                    cacheHits.incrementAndGet();
+                    return data;
+                }
+            }
+            
+            CompletableFuture<ColumnarDataset> mine = new CompletableFuture<>();
+            CompletableFuture<ColumnarDataset> running = loading.putIfAbsent(instanceKey, mine);
+            if (running != null) {
+                try {
+                    return running.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                    throw e;
+                }
+            }
+            try {
+                // A load may have finished between the cache check and winning the slot
+                synchronized (instances) {
+                    ColumnarDataset data = instances.get(instanceKey);
+                    if (data != null) {
+                        cacheHits.incrementAndGet();
+                        mine.complete(data);
+                        return data;
+                    }
+                }
+                ColumnarDataset data = ColumnarDataset.load(path.toString());
+                loads.incrementAndGet();
+                synchronized (instances) {
+                    // Older versions of the same file can never be requested again
+                    String prefix = path + "@";
+                    instances.keySet().removeIf(k -> k.startsWith(prefix));
+                    instances.put(instanceKey, data);
+                    evict();
+                }
+                mine.complete(data);
+                return data;
+            } catch (IOException | RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                loading.remove(instanceKey, mine);
+            }
+        }
+        
+        // Least recently used first; the newest instance stays even if it alone is over the bound.
+        // Runs after every load and every solve, so derived caches count against the bound too.
+        private void evict() {
+            long bytes = cachedBytes();
+            Iterator<ColumnarDataset> it = instances.values().iterator();
+            while (bytes > maxCacheBytes && instances.size() > 1 && it.hasNext()) {
+                bytes -= instanceBytes(it.next());
+                it.remove();
+            }
+        }
+        
+        private long cachedBytes() {
+            long bytes = 0;
+            for (ColumnarDataset data : instances.values()) {
+                bytes += instanceBytes(data);
+            }
+            return bytes;
+        }
+        
+        // Weight, value and ratio columns plus whatever the instance has derived so far
+        private static long instanceBytes(ColumnarDataset data) {
+            return 16L * data.n + data.derived.bytes();
+        }
+        
+        String stats() {
+            synchronized (instances) {
+                return String.format("{\"requests\":%d,\"coalesced\":%d,\"instances\":%d,\"cache_bytes\":%d,"
+                                     + "\"cache_hits\":%d,\"loads\":%d,\"in_flight\":%d}",
+                                     requests.get(), coalesced.get(), instances.size(), cachedBytes(),
+                                     cacheHits.get(), loads.get(), solving.size());
+            }
+        }
+        
+        private void handleSolve(HttpExchange exchange) throws IOException {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String file = query.get("file");
+            String strategy = query.get("strategy");
+            if (file == null || strategy == null) {
+                respond(exchange, 400, error("file and strategy are required"));
+                return;
+            }
+            
+            Result r;
+            try {
+                int capacity = -1;
+                if (query.containsKey("capacity")) {
+                    long requested = longParameter(query, "capacity");
+                    if (requested < 0) throw new IllegalArgumentException("capacity must be >= 0");
+                    if (requested > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("capacity too large: " + requested);
+                    }
+                    capacity = (int) requested;
+                }
+                long budgetNanos = -1;
+                if (query.containsKey("budget")) {
+                    long budgetMillis = longParameter(query, "budget");
+                    if (budgetMillis <= 0) throw new IllegalArgumentException("budget must be > 0 ms");
+                    try {
+                        budgetNanos = Math.multiplyExact(budgetMillis, 1_000_000L);
+                    } catch (ArithmeticException e) {
+                        throw new IllegalArgumentException("budget too large: " + budgetMillis + " ms");
+                    }
+                }
+                r = solve(file, strategy, capacity, budgetNanos).join();
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, error(e.getMessage()));
+                return;
+            } catch (NoSuchFileException e) {
+                respond(exchange, 404, error("No such file: " + file));
+                return;
+            } catch (IOException e) {
+                respond(exchange, 422, error(e.getMessage()));
+                return;
+            } catch (CompletionException e) {
+                Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+                respond(exchange, (cause instanceof IOException) ? 422 : 500, error(String.valueOf(cause.getMessage())));
+                return;
+            }
+            
+            double ratio = r.getOptimalityRatio();
+            StringBuilder body = new StringBuilder();
+            body.append(String.format(Locale.ROOT, "{\"file\":\"%s\",\"strategy\":\"%s\",\"name\":\"%s\",\"value\":%.2f,"
+                                      + "\"weight\":%.2f,\"time_ms\":%.3f,\"proven_optimal\":%b,\"optimality\":%s",
+                                      BatchRunner.jsonEscape(file), strategy, BatchRunner.jsonEscape(r.strategyName),
+                                      r.totalValue, r.totalWeight, r.executionTime / 1_000_000.0, r.provenOptimal,
+                                      Double.isNaN(ratio) ? "null" : String.format(Locale.ROOT, "%.4f", ratio)));
+            if (r.generator != null) {
+                body.append(String.format(Locale.ROOT, ",\"rng\":\"%s\",\"seed\":%d", r.generator, r.seed));
+            }
+            if (Boolean.parseBoolean(query.get("items"))) {
+                body.append(",\"items\":").append(r.selectedItems.toString().replace(" ", ""));
+            }
+            respond(exchange, 200, body.append("}").toString());
+        }
+        
+        private static long longParameter(Map<String, String> query, String name) {
+            try {
+                return Long.parseLong(query.get(name));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be an integer: " + query.get(name));
+            }
+        }
+        
+        private static Map<String, String> parseQuery(String rawQuery) {
+            Map<String, String> query = new HashMap<>();
+            if (rawQuery == null) return query;
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                              URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+            return query;
+        }
+        
+        private static String error(String message) {
+            return "{\"error\":\"" + BatchRunner.jsonEscape(message) + "\"}";
+        }
+        
+        private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = (body + "\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+    
+    // ==================== INSTRUMENTATION ====================
+    
+    /**
+     * Phase timings, allocation and trial statistics for every strategy, published on the
+     * Result, as JFR events (knapsack.Phase, knapsack.StrategyRun) and through the
+     * knapsack:type=Metrics MXBean. Off unless -Dknapsack.metrics=true or the MXBean's
+     * Enabled attribute is set; while off each hook is one volatile read, and hooks only
+     * sit at phase boundaries, never inside per-item loops. The MXBean is registered by the
+     * long-running modes (menu, batch, serve) and whenever the property is set; short
+     * commands skip it, since the platform MBean server adds noticeable startup time.
+     */
+    static final class Metrics {
+        static volatile boolean enabled = Boolean.getBoolean("knapsack.metrics");
+        
+        private static final ConcurrentHashMap<String, PhaseStats> PHASES = new ConcurrentHashMap<>();
+        private static final LatencyHistogram TRIAL_LATENCIES = new LatencyHistogram();
+        private static final LongAdder RUNS = new LongAdder();
+        private static final LongAdder TRIALS = new LongAdder();
+        private static final LongAdder IMPROVEMENTS = new LongAdder();
+        private static boolean registered;
+        
+        private Metrics() {
+        }
+        
+        static final class PhaseStats {
+            final LongAdder count = new LongAdder();
+            final LongAdder totalNanos = new LongAdder();
+            final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+            
+            void add(long nanos) {
+                count.increment();
+                totalNanos.add(nanos);
+                maxNanos.accumulate(nanos);
+            }
+        }
+        
+        // Start time of a phase, or 0 while metrics are off
+        static long now() {
+            return enabled ? System.nanoTime() : 0;
+        }
+        
+        /**
+         * Ends the phase begun at start, adding it to the result (null for phases outside a
+         * strategy, like loading) and to the totals. Returns the end time, which starts the
+         * next phase, or 0 while metrics are off.
+         */
+        static long phase(Result result, String phase, long start) {
+            if (start == 0 || !enabled) return 0;
+            long end = System.nanoTime();
+            long nanos = end - start;
+            if (result != null) {
+                if (result.phaseNanos == null) result.phaseNanos = new LinkedHashMap<>();
+                result.phaseNanos.merge(phase, nanos, Long::sum);
+            }
+            PHASES.computeIfAbsent(phase, k -> new PhaseStats()).add(nanos);
+            
+            PhaseEvent event = new PhaseEvent();
+            if (event.shouldCommit()) {
+                event.strategy = (result != null) ? result.strategyName : "";
+                event.phase = phase;
+                event.nanos = nanos;
+                event.commit();
+            }
+            return end;
+        }
+        
+        // Attaches a run's trial latencies (null while metrics are off) and adds them to the totals
+        static void trialLatencies(Result result, LatencyHistogram latencies) {
+            if (latencies == null) return;
+            result.trialLatencies = latencies;
+            synchronized (TRIAL_LATENCIES) {
+                TRIAL_LATENCIES.merge(latencies);
+            }
+        }
+        
+        // Runs a registry strategy, adding its allocation and counters to the totals
+        static Result record(String strategy, ColumnarDataset data, Function<ColumnarDataset, Result> run) {
+            StrategyRunEvent event = new StrategyRunEvent();
+            event.begin();
+            boolean measured = enabled;
+            long bytesBefore = measured ? allocatedBytes() : -1;
+            
+            Result result = run.apply(data);
+            
+            event.end();
+            if (measured) {
+                long bytesAfter = allocatedBytes();
+                if (bytesBefore >= 0 && bytesAfter >= 0) {
+                    result.allocatedBytes = bytesAfter - bytesBefore;
+                }
+                RUNS.increment();
+                TRIALS.add(result.trials);
+                IMPROVEMENTS.add(result.improvements);
+                PHASES.computeIfAbsent("run/" + strategy, k -> new PhaseStats()).add(result.executionTime);
+            }
+            if (event.shouldCommit()) {
+                event.strategy = strategy;
+                event.file = data.filename;
+                event.items = data.n;
+                event.value = result.totalValue;
+                event.trials = result.trials;
+                event.improvements = result.improvements;
+                event.timeToBest = Math.max(result.timeToBestNanos, 0);
+                event.allocated = result.allocatedBytes;
+                event.commit();
+            }
+            return result;
+        }
+        
+        // Bytes allocated so far by this thread, or -1 if the JVM cannot tell
+        static long allocatedBytes() {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+                }
+            }
+            return -1;
+        }
+        
+        static synchronized void registerMBean() {
+            if (registered) return;
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsView(),
+                                                                         new ObjectName("knapsack:type=Metrics"));
+                registered = true;
+            } catch (JMException e) {
+                System.err.println("Metrics MXBean not registered: " + e.getMessage());
+            }
+        }
+        
+        static void reset() {
+            PHASES.clear();
+            synchronized (TRIAL_LATENCIES) {
+                TRIAL_LATENCIES.clear();
+            }
+            RUNS.reset();
+            TRIALS.reset();
+            IMPROVEMENTS.reset();
+        }
+    }
+    
+    // Management view of Metrics; phases are keyed like "sort", "trials" or "run/<strategy>"
+    public interface MetricsMXBean {
+        boolean isEnabled();
+        void setEnabled(boolean enabled);
+        long getRuns();
+        long getTrials();
+        long getImprovements();
+        Map<String, Long> getPhaseCounts();
+        Map<String, Long> getPhaseTotalNanos();
+        Map<String, Long> getPhaseMaxNanos();
+        long getTrialLatencyCount();
+        long getTrialLatencyP50Nanos();
+        long getTrialLatencyP99Nanos();
+        long getTrialLatencyMaxNanos();
+        void reset();
+    }
+    
+    static class MetricsView implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Metrics.enabled;
+        }
+        
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.enabled = enabled;
+        }
+        
+        @Override
+        public long getRuns() {
+            return Metrics.RUNS.sum();
+        }
+        
+        @Override
+        public long getTrials() {
+            return Metrics.TRIALS.sum();
+        }
+        
+        @Override
+        public long getImprovements() {
+            return Metrics.IMPROVEMENTS.sum();
+        }
+        
+        @Override
+        public Map<String, Long> getPhaseCounts() {
+            return phaseMap(p -> p.count.sum());
+        }
+        
+        @Override
+        public Map<String, Long> getPhaseTotalNanos() {
+            return phaseMap(p -> p.totalNanos.sum());
+        }
+        
+        @Override
+        public Map<String, Long> getPhaseMaxNanos() {
+            return phaseMap(p -> p.maxNanos.get());
+        }
+        
+        @Override
+        public long getTrialLatencyCount() {
+            return trialLatency(h -> h.count());
+        }
+        
+        @Override
+        public long getTrialLatencyP50Nanos() {
+            return trialLatency(h -> h.percentile(0.5));
+        }
+        
+        @Override
+        public long getTrialLatencyP99Nanos() {
+            return trialLatency(h -> h.percentile(0.99));
+        }
+        
+        @Override
+        public long getTrialLatencyMaxNanos() {
+            return trialLatency(h -> h.max());
+        }
+        
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+        
+        private static Map<String, Long> phaseMap(Function<Metrics.PhaseStats, Long> field) {
+            Map<String, Long> values = new TreeMap<>();
+            Metrics.PHASES.forEach((phase, stats) -> values.put(phase, field.apply(stats)));
+            return values;
+        }
+        
+        private static long trialLatency(Function<LatencyHistogram, Long> field) {
+            synchronized (Metrics.TRIAL_LATENCIES) {
+                return field.apply(Metrics.TRIAL_LATENCIES);
+            }
+        }
+    }
+    
+    /**
+     * Log-linear latency histogram: 8 linear sub-buckets per power of two, so any
+     * percentile is within 12.5% of the true value. Fixed size, no allocation per
+     * sample; not thread-safe, so runs record into their own and merge.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        
+        private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB_BUCKETS];
+        private long total;
+        private long max;
+        
+        void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            counts[index(nanos)]++;
+            total++;
+            if (nanos > max) max = nanos;
+        }
+        
+        void merge(LatencyHistogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            total += other.total;
+            max = Math.max(max, other.max);
+        }
+        
+        void clear() {
+            Arrays.fill(counts, 0);
+            total = 0;
+            max = 0;
+        }
+        
+        long count() {
+            return total;
+        }
+        
+        long max() {
+            return max;
+        }
+        
+        // Lower bound of the bucket holding the q-quantile, 0 if empty
+        long percentile(double q) {
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) return Math.min(lowerBound(i), max);
+            }
+            return 0;
+        }
+        
+        private static int index(long nanos) {
+            if (nanos < SUB_BUCKETS) return (int) nanos;
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+        }
+        
+        private static long lowerBound(int index) {
+            if (index < SUB_BUCKETS) return index;
+            int exponent = (index >>> SUB_BITS) + SUB_BITS - 1;
+            return (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << (exponent - SUB_BITS);
+        }
+    }
+    
+    @Name("knapsack.Phase")
+    @Label("Knapsack Phase")
+    @Category("Knapsack")
+    static class PhaseEvent extends Event {
+        @Label("Strategy")
+        String strategy;
+        
+        @Label("Phase")
+        String phase;
+        
+        @Label("Phase Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+    
+    @Name("knapsack.StrategyRun")
+    @Label("Knapsack Strategy Run")
+    @Category("Knapsack")
+    static class StrategyRunEvent extends Event {
+        @Label("Strategy")
+        String strategy;
+        
+        @Label("File")
+        String file;
+        
+        @Label("Items")
+        int items;
+        
+        @Label("Value")
+        double value;
+        
+        @Label("Trials")
+        long trials;
+        
+        @Label("Improvements")
+        int improvements;
+        
+        @Label("Time to Best")
+        @Timespan(Timespan.NANOSECONDS)
+        long timeToBest;
+        
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+    
+    // ==================== UTILITY METHODS ====================
+    
+    // startTime + budgetNanos, saturated to Long.MAX_VALUE when a large budget would overflow
+    static long deadlineAfter(long startTime, long budgetNanos) {
+        try {
+            return Math.addExact(startTime, budgetNanos);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+    
+    public static void printResult(Result result, boolean detailed) {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println(result.strategyName);
+        System.out.println("=".repeat(60));
+        System.out.printf("Total Value: %.2f\n", result.totalValue);
+        System.out.printf("Total Weight: %.2f\n", result.totalWeight);
+        System.out.printf("Execution Time: %.3f ms\n", result.executionTime / 1_000_000.0);
+        if (result.provenOptimal) {
+            System.out.println("Proven Optimal: yes");
+        }
+        if (result.optimalValue > 0) {
+            System.out.printf("Optimality: %.2f%% (gap %.2f%%, known optimum %.0f)\n",
+                              result.getOptimalityRatio(), result.getOptimalityGap(), result.optimalValue);
+        }
+        if (result.trials > 0) {
+            System.out.printf("Trials: %d, improvements: %d, time to best: %.3f ms\n",
+                              result.trials, result.improvements, Math.max(result.timeToBestNanos, 0) / 1_000_000.0);
+        }
+        if (result.generator != null) {
+            System.out.printf("Random: %s, seed %d\n", result.generator, result.seed);
+        }
+        if (result.phaseNanos != null) {
+            StringJoiner phases = new StringJoiner(", ", "Phases: ", "");
+            for (Map.Entry<String, Long> e : result.phaseNanos.entrySet()) {
+                phases.add(String.format("%s %.3f ms", e.getKey(), e.getValue() / 1_000_000.0));
+            }
+            System.out.println(phases);
+        }
+        if (result.allocatedBytes >= 0) {
+            System.out.printf("Allocated: %d bytes\n", result.allocatedBytes);
+        }
+        if (result.trialLatencies != null && result.trialLatencies.count() > 0) {
+            LatencyHistogram h = result.trialLatencies;
+            System.out.printf("Trial latency: p50 %.1f us, p99 %.1f us, max %.1f us\n",
+                              h.percentile(0.5) / 1000.0, h.percentile(0.99) / 1000.0, h.max() / 1000.0);
+        }
+        
+        if (detailed) {
+            System.out.println("Selected Items: " + result.selectedItems);
+        }
+    }
+    
+    /**
+     * Loads a file repeatedly through the memory-mapped parser and reports throughput
+     */
+    public static void measureLoadThroughput(String filename, int rounds) throws Exception {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("LOAD THROUGHPUT: " + filename);
+        System.out.println("=".repeat(60));
+        if (filename.endsWith(BinaryInstance.EXTENSION)) {
+            printLoadThroughput("Binary", filename, rounds, () -> ColumnarDataset.load(filename).n);
+            return;
+        }
+        printLoadThroughput("Text parse", filename, rounds, () -> ColumnarDataset.loadText(filename).n);
+        
+        // The first cached load writes the sidecar; later ones map it
+        ColumnarDataset.load(filename);
+        Path sidecar = BinaryInstance.sidecarOf(filename);
+        if (BinaryInstance.SIDECARS && Files.isRegularFile(sidecar)) {
+            printLoadThroughput("Binary sidecar", sidecar.toString(), rounds, () -> ColumnarDataset.load(filename).n);
+        }
+    }
+    
+    private static void printLoadThroughput(String label, String file, int rounds, Callable<Integer> load)
+            throws Exception {
+        long bytes = Files.size(Paths.get(file));
+        int n = 0;
+        
+        // Warm up the loader before timing
+        for (int i = 0; i < 3; i++) {
+            n = load.call();
+        }
+        
+        long startTime = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            n = load.call();
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        
+        System.out.println(label + " (" + file + ")");
+        System.out.printf("  Items: %d, Size: %.2f MB, Rounds: %d\n", n, bytes / 1e6, rounds);
+        System.out.printf("  Load Time: %.3f ms\n", seconds * 1000 / rounds);
+        System.out.printf("  Throughput: %.1f MB/s, %.0f items/s\n",
+                          bytes * rounds / 1e6 / seconds, (double) n * rounds / seconds);
+    }
+    
+    /**
+     * Writes a random instance in the knapPI format (without a solution line).
+     * type 1 = uncorrelated, 2 = weakly correlated, 3 = strongly correlated; data range R = 1000.
+     * Capacity is about 1% of the total weight (at least R), like the bundled knapPI files.
+     */
+    public static void generateInstance(String filename, int n, int type, long seed) throws IOException {
+        final int range = 1000;
+        SplittableRandom rand = new SplittableRandom(seed);
+        int[] weights = new int[n];
+        int[] values = new int[n];
+        long totalWeight = 0;
+        
+        for (int i = 0; i < n; i++) {
+            int weight = 1 + rand.nextInt(range);
+            int value;
+            switch (type) {
+                case 1:
+                    value = 1 + rand.nextInt(range);
+                    break;
+                case 2:
+                    value = Math.max(1, weight - range / 10 + rand.nextInt(range / 5 + 1));
+                    break;
+                case 3:
+                    value = weight + range / 10;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown instance type: " + type);
+            }
+            weights[i] = weight;
+            values[i] = value;
+            totalWeight += weight;
+        }
+        
+        long capacity = Math.min(Integer.MAX_VALUE, Math.max(range, totalWeight / 100));
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(filename))) {
+            out.write(n + " " + capacity + "\n");
+            for (int i = 0; i < n; i++) {
+                out.write(values[i] + " " + weights[i] + "\n");
+            }
+        }
+    }
+    
+    public static void runAllAlgorithms(Dataset dataset) {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("RUNNING ALL ALGORITHMS ON: " + dataset.filename);
+        System.out.println("Dataset: " + dataset.n + " items, Capacity: " + dataset.capacity);
+        System.out.println("=".repeat(80));
+        
+        List<Result> results = new ArrayList<>();
+        
+        // Columnar view: each ordering is sorted once and shared by the strategies below
+        ColumnarDataset columns = dataset.columnar();
+        
+        // All six greedy strategies share one ordering and one scan per criterion
+        EnsembleResult greedy = greedyEnsemble(columns);
+        System.out.println("\n>>> FRACTIONAL KNAPSACK ALGORITHMS <<<");
+        for (Result r : greedy.results.subList(0, 3)) {
+            results.add(r);
+            printResult(r, false);
+        }
+        
+        // 0-1 Knapsack Greedy
+        System.out.println("\n>>> 0-1 KNAPSACK - GREEDY ALGORITHMS <<<");
+        for (Result r : greedy.results.subList(3, 6)) {
+            results.add(r);
+            printResult(r, false);
+        }
+        System.out.printf("Best greedy 0-1: %s (%.2f); ensemble time %.3f ms\n",
+                          greedy.best.strategyName, greedy.best.totalValue, greedy.executionTime / 1_000_000.0);
+        
+        // 0-1 Knapsack Randomized
+        System.out.println("\n>>> 0-1 KNAPSACK - RANDOMIZED ALGORITHMS <<<");
+        results.add(randomSamplingKnapsack(columns, SeededRandom.of(42)));
+        printResult(results.get(results.size() - 1), false);
+        
+        results.add(monteCarloKnapsack1(columns, 1000));
+        printResult(results.get(results.size() - 1), false);
+        
+        results.add(monteCarloKnapsack2(columns, 1000));
+        printResult(results.get(results.size() - 1), false);
+        
+        // Reference optimum: the one stored in the file, otherwise an exact solve
+        double optimum = dataset.optimalValue;
+        String reference = "the known optimum";
+        if (optimum < 0) {
+            System.out.println("\n>>> 0-1 KNAPSACK - EXACT <<<");
+            Result exact = exactKnapsackDP(columns);
+            results.add(exact);
+            printResult(exact, false);
+            optimum = exact.totalValue;
+            reference = "the exact 0-1 optimum";
+        }
+        
+        // Summary
+        System.out.println("\n" + "=".repeat(95));
+        System.out.println("SUMMARY - ALL RESULTS (optimality relative to " + reference + ")");
+        System.out.println("=".repeat(95));
+        System.out.printf("%-45s %12s %12s %15s %8s\n", 
+                         "Algorithm", "Value", "Weight", "Time (ms)", "Opt (%)");
+        System.out.println("-".repeat(95));
+        
+        for (Result r : results) {
+            System.out.printf("%-45s %12.2f %12.2f %15.3f %8.2f\n", 
+                             r.strategyName, r.totalValue, r.totalWeight, 
+                             r.executionTime / 1_000_000.0, r.getOptimalityRatio(optimum));
+        }
+    }
+    
+    // ==================== MAIN MENU ====================
+    
+    // Non-interactive commands; the menu below runs when no arguments are given
+    private static void runCommand(String[] args) {
+        try {
+            if (args[0].equals("load-bench") && args.length >= 2) {
+                int rounds = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+                measureLoadThroughput(args[1], rounds);
+            } else if (args[0].equals("batch") && args.length >= 2) {
+                List<String> inputs = new ArrayList<>();
+                Map<String, String> options = parseOptions(args, 1, inputs);
+                String names = options.getOrDefault("strategies", String.join(",", LIST_STRATEGIES.keySet()));
+                List<String> strategies = names.equals("all")
+                    ? new ArrayList<>(STRATEGIES.keySet()) : Arrays.asList(names.split(","));
+                int threads = Integer.parseInt(options.getOrDefault("threads",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+                int queue = Integer.parseInt(options.getOrDefault("queue", String.valueOf(threads * 2)));
+                BatchRunner runner = new BatchRunner(strategies, options.getOrDefault("format", "csv").equals("json"),
+                                                     new PrintStream(new BufferedOutputStream(System.out), false));
+                Metrics.registerMBean();
+                runner.run(inputs, threads, queue);
+            } else if (args[0].equals("serve")) {
+                Map<String, String> options = parseOptions(args, 1, new ArrayList<>());
+                SolverService service = new SolverService(Long.parseLong(options.getOrDefault("cache-mb", "256")) << 20);
+                service.start(Integer.parseInt(options.getOrDefault("port", "8080")));
+                System.out.println("Solver service listening on http://127.0.0.1:" + service.port()
+                                   + "/ (GET /solve?file=...&strategy=..., /strategies, /stats)");
+            } else if (args[0].equals("stream")) {
+                List<String> inputs = new ArrayList<>();
+                Map<String, String> options = parseOptions(args, 1, inputs);
+                runStreamComparison(inputs.isEmpty() ? bundledInstanceFiles() : inputs,
+                                    Integer.parseInt(options.getOrDefault("k", "1000")),
+                                    Integer.parseInt(options.getOrDefault("warmup", "-1")),
+                                    options.getOrDefault("policy", "top"),
+                                    Boolean.parseBoolean(options.getOrDefault("print-ids", "false")));
+            } else if (args[0].equals("small-batch")) {
+                List<String> files = new ArrayList<>();
+                Map<String, String> options = parseOptions(args, 1, files);
+                checkSmallBatch(files.isEmpty() ? bundledInstanceFiles() : files,
+                                Integer.parseInt(options.getOrDefault("copies", "1000")));
+            } else if (args[0].equals("check-core")) {
+                Map<String, String> options = parseOptions(args, 1, new ArrayList<>());
+                checkCoreAgainstDP(Integer.parseInt(options.getOrDefault("instances", "2000")),
+                                   Long.parseLong(options.getOrDefault("seed", "1")));
+            } else if (args[0].equals("convert") && args.length >= 2) {
+                List<String> files = new ArrayList<>();
+                Map<String, String> options = parseOptions(args, 1, files);
+                if (options.containsKey("out") && files.size() != 1) {
+                    System.out.println("--out takes exactly one input file");
+                    return;
+                }
+                for (String file : files) {
+                    String out = options.getOrDefault("out", file.replaceFirst("\\.txt$", "") + BinaryInstance.EXTENSION);
+                    BinaryInstance.convert(file, out);
+                    System.out.println(file + " -> " + out);
+                }
+            } else if (args[0].equals("generate") && args.length >= 4) {
+                long seed = (args.length > 4) ? Long.parseLong(args[4]) : 1;
+                generateInstance(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), seed);
+            } else {
+                printUsage();
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("Error: " + e);
+        }
+    }
+    
+    // Splits "--name value" options from positional arguments, starting at args[from]
+    static Map<String, String> parseOptions(String[] args, int from, List<String> positional) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = from; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i].substring(2), args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        return options;
+    }
+    
+    private static void printUsage() {
+        System.out.println("Usage: java -jar knapsack.jar                      (interactive menu)");
+        System.out.println("       java -jar knapsack.jar load-bench <file> [rounds]");
+        System.out.println("       java -jar knapsack.jar batch <dir|glob|file>... [--strategies a,b|all] [--threads N]");
+        System.out.println("                                    [--queue N] [--format csv|json]");
+        System.out.println("       java -jar knapsack.jar serve [--port 8080] [--cache-mb 256]");
+        System.out.println("       java -jar knapsack.jar stream [files...|-] [--k 1000] [--warmup N]");
+        System.out.println("                                    [--policy top|sampled|zcl] [--print-ids true]   (for - = stdin)");
+        System.out.println("       java -jar knapsack.jar small-batch [files...] [--copies 1000]");
+        System.out.println("       java -jar knapsack.jar check-core [--instances 2000] [--seed 1]");
+        System.out.println("       java -jar knapsack.jar convert <file>... [--out file.kpb]");
+        System.out.println("       java -jar knapsack.jar generate <file> <n> <type 1-3> [seed]");
+    }
+    
+    public static void main(String[] args) {
+        if (Metrics.enabled || args.length == 0) {
+            Metrics.registerMBean();
+        }
+        if (args.length > 0) {
+            runCommand(args);
+            return;
+        }
+        
+        Scanner scanner = new Scanner(System.in);
+        
+        while (true) {
+            System.out.println("\n" + "=".repeat(80));
+            System.out.println("CS311 PROJECT: KNAPSACK PROBLEM SOLVER");
+            System.out.println("=".repeat(80));
+            System.out.println("1. Fractional Knapsack - Greedy by Ratio (Optimal)");
+            System.out.println("2. Fractional Knapsack - Greedy by Value");
+            System.out.println("3. Fractional Knapsack - Greedy by Lowest Weight");
+            System.out.println("4. 0-1 Knapsack - Greedy by Ratio");
+            System.out.println("5. 0-1 Knapsack - Greedy by Value");
+            System.out.println("6. 0-1 Knapsack - Greedy by Lowest Weight");
+            System.out.println("7. 0-1 Knapsack - Random Sampling");
+            System.out.println("8. 0-1 Knapsack - Monte Carlo 1 (1000 trials)");
+            System.out.println("9. 0-1 Knapsack - Monte Carlo 2 (1000 trials, best items)");
+            System.out.println("10. Run ALL Algorithms and Compare");
+            System.out.println("11. 0-1 Knapsack - Parallel Monte Carlo 1 (1000 trials, all cores)");
+            System.out.println("12. 0-1 Knapsack - Parallel Monte Carlo 2 (1000 trials, all cores)");
+            System.out.println("13. 0-1 Knapsack - Exact (Dynamic Programming)");
+            System.out.println("14. 0-1 Knapsack - Branch and Bound (1 s budget)");
+            System.out.println("0. Exit");
+            System.out.println("=".repeat(80));
+            System.out.print("Select an option: ");
+            
+            int choice = scanner.nextInt();
+            scanner.nextLine(); // consume newline
+            
+            if (choice == 0) {
+                System.out.println("Exiting... Goodbye!");
+                break;
+            }
+            
+            System.out.print("\nEnter dataset filename (e.g., data.txt): ");
+            String filename = scanner.nextLine();
+            
+            try {
+                Dataset dataset = new Dataset(filename);
+                Result result;
+                
+                switch (choice) {
+                    case 1:
+                        result = fractionalKnapsackByRatio(dataset);
+                        printResult(result, true);
+                        break;
+                    case 2:
+                        result = fractionalKnapsackByValue(dataset);
+                        printResult(result, true);
+                        break;
+                    case 3:
+                        result = fractionalKnapsackByWeight(dataset);
+                        printResult(result, true);
+                        break;
+                    case 4:
+                        result = zeroOneKnapsackByRatio(dataset);
+                        printResult(result, true);
+                        break;
+                    case 5:
+                        result = zeroOneKnapsackByValue(dataset);
+                        printResult(result, true);
+                        break;
+                    case 6:
+                        result = zeroOneKnapsackByWeight(dataset);
+                        printResult(result, true);
+                        break;
+                    case 7:
+                        result = randomSamplingKnapsack(dataset, SeededRandom.create());
+                        printResult(result, true);
+                        break;
+                    case 8:
+                        result = monteCarloKnapsack1(dataset, 1000);
+                        printResult(result, true);
+                        break;
+                    case 9:
+                        result = monteCarloKnapsack2(dataset, 1000);
+                        printResult(result, true);
+                        break;
+                    case 10:
+                        runAllAlgorithms(dataset);
+                        break;
+                    case 11:
+                        result = parallelMonteCarloKnapsack1(dataset, 1000, SeededRandom.create(), 0);
+                        printResult(result, true);
+                        break;
+                    case 12:
+                        result = parallelMonteCarloKnapsack2(dataset, 1000, SeededRandom.create(), 0);
+                        printResult(result, true);
+                        break;
+                    case 13:
+                        result = exactKnapsackDP(dataset);
+                        printResult(result, true);
+                        break;
+                    case 14:
+                        result = branchAndBoundKnapsack(dataset, Long.MAX_VALUE, 1_000_000_000L);
+                        printResult(result, true);
+                        break;
+                    default:
+                        System.out.println("Invalid choice!");
+                }
+                
+            } catch (IOException e) {
+                System.out.println("Error reading file: " + e.getMessage());
+            }
+        }
+        
+        scanner.close();
+    }
+}
\ No newline at end of file
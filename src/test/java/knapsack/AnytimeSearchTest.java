@@ -0,0 +1,141 @@
+package knapsack;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import knapsack.KnapsackSolver.AnytimeSearch;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.Result;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Each stopping criterion of the anytime Monte Carlo search, and the incumbents it
+ * publishes on the way.
+ */
+class AnytimeSearchTest {
+    
+    static ColumnarDataset data;
+    
+    @BeforeAll
+    static void load() throws IOException {
+        data = ColumnarDataset.load("knapPI_1_1000_1000_1.txt");
+    }
+    
+    static void assertFeasible(Result result) {
+        long weight = 0;
+        long value = 0;
+        for (int id : result.selectedItems) {
+            weight += data.weights[id - 1];
+            value += data.values[id - 1];
+        }
+        assertTrue(weight <= data.capacity);
+        assertEquals(weight, result.totalWeight);
+        assertEquals(value, result.totalValue);
+    }
+    
+    @Test
+    void trialLimit() {
+        AnytimeSearch search = AnytimeSearch.monteCarlo1(data);
+        search.maxTrials = 500;
+        Result result = search.run(new SplittableRandom(1));
+        assertEquals("trial limit", search.stopReason);
+        assertEquals(500, result.trials);
+        assertFeasible(result);
+    }
+    
+    @Test
+    void stagnation() {
+        AnytimeSearch search = AnytimeSearch.monteCarlo2(data);
+        search.stagnationTrials = 50;
+        search.maxTrials = 1_000_000;
+        Result result = search.run(new SplittableRandom(2));
+        assertEquals("stagnation", search.stopReason);
+        assertTrue(result.trials >= 50);
+        assertFeasible(result);
+    }
+    
+    @Test
+    void gapTarget() {
+        // Aim at the gap a seeded 200-trial run ends with; the same seed must stop there
+        AnytimeSearch probe = AnytimeSearch.monteCarlo1(data);
+        probe.maxTrials = 200;
+        Result reached = probe.run(new SplittableRandom(3));
+        double bound = Math.floor(KnapsackSolver.fractionalKnapsackByRatioLinear(data).totalValue);
+        
+        AnytimeSearch search = AnytimeSearch.monteCarlo1(data);
+        search.gapTarget = (bound - reached.totalValue) / bound;
+        search.maxTrials = 1_000_000;
+        Result result = search.run(new SplittableRandom(3));
+        assertEquals("gap target", search.stopReason);
+        assertEquals(reached.totalValue, result.totalValue);
+        assertTrue(result.trials <= 200);
+    }
+    
+    @Test
+    void timeBudget() {
+        long budget = TimeUnit.MILLISECONDS.toNanos(20);
+        long start = System.nanoTime();
+        Result result = KnapsackSolver.monteCarloKnapsack1(data, budget, Long.MAX_VALUE);
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= budget);
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(2), "ran " + elapsed + " ns");
+        assertTrue(result.trials > 0);
+        assertFeasible(result);
+        
+        // An unbounded budget saturates the deadline instead of overflowing it
+        AnytimeSearch search = AnytimeSearch.monteCarlo2(data);
+        search.timeBudgetNanos = Long.MAX_VALUE;
+        search.maxTrials = 100;
+        search.run(new SplittableRandom(4));
+        assertEquals("trial limit", search.stopReason);
+    }
+    
+    @Test
+    void listenersSeeEveryImprovement() {
+        AnytimeSearch search = AnytimeSearch.monteCarlo1(data);
+        search.maxTrials = 2000;
+        List<Result> seen = new ArrayList<>();
+        search.onImprovement(seen::add);
+        Result result = search.run(new SplittableRandom(5));
+        
+        assertEquals(result.improvements, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i).totalValue > seen.get(i - 1).totalValue);
+        }
+        Result last = seen.get(seen.size() - 1);
+        assertEquals(last.totalValue, result.totalValue);
+        assertEquals(last.executionTime, result.timeToBestNanos);
+        assertSame(last, search.best());
+        assertFeasible(last);
+    }
+    
+    @Test
+    void cancel() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AnytimeSearch search = AnytimeSearch.monteCarlo1(data);
+            CountDownLatch improved = new CountDownLatch(1);
+            search.onImprovement(r -> improved.countDown());
+            CompletableFuture<Result> future = search.start(executor, new SplittableRandom(6));
+            assertTrue(improved.await(10, TimeUnit.SECONDS));
+            search.cancel();
+            Result result = future.get(10, TimeUnit.SECONDS);
+            assertEquals("cancelled", search.stopReason);
+            assertTrue(result.totalValue > 0);
+            assertTrue(search.trialsCompleted() >= result.trials);
+            assertFeasible(result);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
+
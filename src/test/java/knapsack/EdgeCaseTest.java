@@ -0,0 +1,113 @@
+package knapsack;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.Dataset;
+import knapsack.KnapsackSolver.Item;
+import knapsack.KnapsackSolver.Result;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Every registered strategy on the degenerate instances: no items, no capacity, and
+ * items that weigh nothing.
+ */
+class EdgeCaseTest {
+    
+    @TempDir
+    Path dir;
+    
+    // Ids exist, are not repeated, and the reported weight is the selection's and fits
+    static void assertFeasible(String name, ColumnarDataset data, Result result) {
+        Set<Integer> seen = new HashSet<>();
+        for (int id : result.selectedItems) {
+            assertTrue(id >= 1 && id <= data.n, name + ": id " + id + " out of range");
+            assertTrue(seen.add(id), name + ": id " + id + " selected twice");
+        }
+        assertTrue(result.totalWeight <= data.capacity + 1e-9, name + ": over capacity");
+    }
+    
+    @Test
+    void emptyInstance() {
+        ColumnarDataset data = new ColumnarDataset("empty", 10, new int[0], new int[0]);
+        for (Map.Entry<String, Function<ColumnarDataset, Result>> e : KnapsackSolver.STRATEGIES.entrySet()) {
+            Result result = e.getValue().apply(data);
+            assertEquals(0, result.totalValue, e.getKey());
+            assertTrue(result.selectedItems.isEmpty(), e.getKey());
+        }
+    }
+    
+    @Test
+    void zeroCapacity() {
+        ColumnarDataset data = new ColumnarDataset("cap0", 0, new int[] {3, 4, 5}, new int[] {5, 6, 7});
+        for (Map.Entry<String, Function<ColumnarDataset, Result>> e : KnapsackSolver.STRATEGIES.entrySet()) {
+            Result result = e.getValue().apply(data);
+            assertEquals(0, result.totalValue, e.getKey());
+            assertTrue(result.selectedItems.isEmpty(), e.getKey());
+        }
+    }
+    
+    @Test
+    void zeroWeightItems() {
+        // Optimum 13 (items 1, 3 and 4); the LP takes items 1, 2 and half of item 4 for 15
+        ColumnarDataset data = new ColumnarDataset("zero-weight", 5,
+                new int[] {0, 3, 0, 4, 6}, new int[] {7, 5, 0, 6, 9});
+        for (Map.Entry<String, Function<ColumnarDataset, Result>> e : KnapsackSolver.STRATEGIES.entrySet()) {
+            Result result = e.getValue().apply(data);
+            assertFeasible(e.getKey(), data, result);
+            if (!e.getKey().startsWith("frac-")) {
+                assertTrue(result.totalValue <= 13, e.getKey());
+            }
+        }
+        for (String exact : List.of("exact-dp", "core", "bnb")) {
+            assertEquals(13, KnapsackSolver.STRATEGIES.get(exact).apply(data).totalValue, exact);
+        }
+        for (String lp : List.of("frac-ratio", "frac-ratio-linear")) {
+            assertEquals(15, KnapsackSolver.STRATEGIES.get(lp).apply(data).totalValue, 1e-9, lp);
+        }
+    }
+    
+    @Test
+    void zeroWeightItemsAtZeroCapacity() {
+        ColumnarDataset data = new ColumnarDataset("cap0-zero-weight", 0,
+                new int[] {0, 3, 0}, new int[] {7, 5, 2});
+        for (String name : List.of("frac-ratio", "frac-ratio-linear", "zo-ratio", "exact-dp", "core", "bnb")) {
+            Result result = KnapsackSolver.STRATEGIES.get(name).apply(data);
+            assertEquals(9, result.totalValue, 1e-9, name);
+            assertEquals(Set.of(1, 3), new HashSet<>(result.selectedItems), name);
+        }
+    }
+    
+    @Test
+    void zeroWeightItemsRankFirstByRatio() {
+        assertEquals(Double.POSITIVE_INFINITY, Item.ratioOf(0, 1));
+        assertEquals(0, Item.ratioOf(0, 0));
+        ColumnarDataset data = new ColumnarDataset("order", 10, new int[] {1, 0, 2}, new int[] {9, 1, 2});
+        assertArrayEquals(new int[] {1, 0, 2}, data.orderByRatio());
+    }
+    
+    @Test
+    void listStrategiesOnDegenerateFiles() throws IOException {
+        for (String text : List.of("0 10\n", "3 0\n5 3\n6 4\n7 5\n", "5 5\n7 0\n5 3\n0 0\n6 4\n9 6\n")) {
+            Path file = Files.writeString(Files.createTempFile(dir, "instance", ".txt"), text);
+            Dataset dataset = new Dataset(file.toString());
+            ColumnarDataset data = dataset.columnar();
+            assertEquals(data.n, dataset.getItemsCopy().size());
+            for (Map.Entry<String, Function<Dataset, Result>> e : KnapsackSolver.LIST_STRATEGIES.entrySet()) {
+                assertFeasible(e.getKey(), data, e.getValue().apply(dataset));
+            }
+            assertEquals(KnapsackSolver.STRATEGIES.get("frac-ratio").apply(data).totalValue,
+                    KnapsackSolver.fractionalKnapsackByRatio(dataset).totalValue, 1e-9);
+        }
+    }
+}
+
@@ -0,0 +1,91 @@
+package knapsack;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.Result;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * The exact solvers (exact-dp, bnb, core) against the optimum stored in the knapPI files,
+ * and against a plain DP table on small random instances.
+ */
+class ExactSolverTest {
+    
+    // Value of the selection, checked for feasibility and against the reported totals
+    static long checkedValue(ColumnarDataset data, Result result) {
+        long weight = 0;
+        long value = 0;
+        boolean[] seen = new boolean[data.n];
+        for (int id : result.selectedItems) {
+            assertFalse(seen[id - 1], "id " + id + " selected twice");
+            seen[id - 1] = true;
+            weight += data.weights[id - 1];
+            value += data.values[id - 1];
+        }
+        assertTrue(weight <= data.capacity, "over capacity");
+        assertEquals(weight, result.totalWeight);
+        assertEquals(value, result.totalValue);
+        return value;
+    }
+    
+    static long tableOptimum(ColumnarDataset data) {
+        long[] best = new long[data.capacity + 1];
+        for (int i = 0; i < data.n; i++) {
+            for (int c = data.capacity; c >= data.weights[i]; c--) {
+                best[c] = Math.max(best[c], best[c - data.weights[i]] + data.values[i]);
+            }
+        }
+        return best[data.capacity];
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"knapPI_1_100_1000_1.txt", "knapPI_2_100_1000_1.txt", "knapPI_3_100_1000_1.txt",
+        "knapPI_1_200_1000_1.txt", "knapPI_2_200_1000_1.txt", "knapPI_3_200_1000_1.txt"})
+    void knownOptimum(String file) throws IOException {
+        ColumnarDataset data = ColumnarDataset.load(file);
+        assertTrue(data.optimalValue > 0, "no solution line in " + file);
+        
+        Result dp = KnapsackSolver.exactKnapsackDP(data);
+        assertEquals(data.optimalValue, checkedValue(data, dp));
+        assertTrue(dp.provenOptimal);
+        
+        Result bnb = KnapsackSolver.branchAndBoundKnapsack(data, Long.MAX_VALUE, 10_000_000_000L);
+        assertEquals(data.optimalValue, checkedValue(data, bnb));
+        assertTrue(bnb.provenOptimal);
+        
+        Result core = KnapsackSolver.coreKnapsack(data, 10_000_000_000L);
+        assertEquals(data.optimalValue, checkedValue(data, core));
+        assertTrue(core.provenOptimal);
+    }
+    
+    @Test
+    void smallRandomInstances() {
+        SplittableRandom rand = new SplittableRandom(1);
+        for (int k = 0; k < 500; k++) {
+            int n = 1 + rand.nextInt(60);
+            int range = 5 + rand.nextInt(100);
+            int[] weights = new int[n];
+            int[] values = new int[n];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                weights[i] = 1 + rand.nextInt(range);
+                // Every third instance strongly correlated, where the greedy bounds are weakest
+                values[i] = (k % 3 == 0) ? weights[i] + range / 10 : 1 + rand.nextInt(range);
+                total += weights[i];
+            }
+            ColumnarDataset data = new ColumnarDataset("random-" + k, (int) (total / 2), weights, values);
+            long expected = tableOptimum(data);
+            assertEquals(expected, checkedValue(data, KnapsackSolver.exactKnapsackDP(data)), data.filename);
+            assertEquals(expected, checkedValue(data, KnapsackSolver.branchAndBoundKnapsack(data,
+                    Long.MAX_VALUE, 10_000_000_000L)), data.filename);
+            assertEquals(expected, checkedValue(data, KnapsackSolver.coreKnapsack(data, 10_000_000_000L)),
+                    data.filename);
+        }
+    }
+}
+
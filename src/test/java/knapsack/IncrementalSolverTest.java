@@ -0,0 +1,128 @@
+package knapsack;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.IncrementalSolver;
+import knapsack.KnapsackSolver.Result;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The treap-backed incremental solver against a from-scratch solve of the same items
+ * after every edit.
+ */
+class IncrementalSolverTest {
+    
+    // The current items as a fresh dataset, in id order so ratio ties break the same way
+    static ColumnarDataset recompute(TreeMap<Integer, int[]> items, int capacity, List<Integer> ids) {
+        ids.clear();
+        int[] weights = new int[items.size()];
+        int[] values = new int[items.size()];
+        int p = 0;
+        for (Map.Entry<Integer, int[]> e : items.entrySet()) {
+            ids.add(e.getKey());
+            weights[p] = e.getValue()[0];
+            values[p] = e.getValue()[1];
+            p++;
+        }
+        return new ColumnarDataset("recompute", capacity, weights, values);
+    }
+    
+    static List<Integer> toIds(List<Integer> positionIds, List<Integer> ids) {
+        List<Integer> mapped = new ArrayList<>();
+        for (int id : positionIds) {
+            mapped.add(ids.get(id - 1));
+        }
+        return mapped;
+    }
+    
+    static void assertMatches(IncrementalSolver solver, TreeMap<Integer, int[]> items, int capacity) {
+        List<Integer> ids = new ArrayList<>();
+        ColumnarDataset data = recompute(items, capacity, ids);
+        Result fractional = KnapsackSolver.fractionalKnapsackByRatio(data);
+        Result greedy = KnapsackSolver.zeroOneKnapsackByRatio(data);
+        
+        assertEquals(items.size(), solver.size());
+        assertEquals(fractional.totalValue, solver.fractionalValue(), 1e-6);
+        assertEquals((long) greedy.totalValue, solver.greedyValue());
+        
+        Result incremental = solver.fractionalKnapsack();
+        assertEquals(fractional.totalValue, incremental.totalValue, 1e-6);
+        assertEquals(fractional.totalWeight, incremental.totalWeight, 1e-6);
+        assertEquals(toIds(fractional.selectedItems, ids), incremental.selectedItems);
+        
+        Result incrementalGreedy = solver.zeroOneKnapsackByRatio();
+        assertEquals(greedy.totalValue, incrementalGreedy.totalValue);
+        assertEquals(greedy.totalWeight, incrementalGreedy.totalWeight);
+        assertEquals(toIds(greedy.selectedItems, ids), incrementalGreedy.selectedItems);
+    }
+    
+    @Test
+    void randomEdits() {
+        SplittableRandom rand = new SplittableRandom(5);
+        for (int run = 0; run < 20; run++) {
+            int capacity = rand.nextInt(400);
+            IncrementalSolver solver = new IncrementalSolver(capacity);
+            TreeMap<Integer, int[]> items = new TreeMap<>();
+            for (int step = 0; step < 400; step++) {
+                int id = 1 + rand.nextInt(60);
+                // Small ranges give ratio ties and zero weights
+                int weight = rand.nextInt(30);
+                int value = rand.nextInt(30);
+                switch (rand.nextInt(4)) {
+                    case 0 -> {
+                        if (items.containsKey(id)) {
+                            assertThrows(IllegalArgumentException.class, () -> solver.insert(id, weight, value));
+                        } else {
+                            solver.insert(id, weight, value);
+                            items.put(id, new int[] {weight, value});
+                        }
+                    }
+                    case 1 -> assertEquals(items.remove(id) != null, solver.delete(id));
+                    case 2 -> {
+                        if (items.containsKey(id)) {
+                            solver.update(id, weight, value);
+                            items.put(id, new int[] {weight, value});
+                        } else {
+                            assertThrows(IllegalArgumentException.class, () -> solver.update(id, weight, value));
+                        }
+                    }
+                    default -> {
+                        capacity = rand.nextInt(400);
+                        solver.setCapacity(capacity);
+                    }
+                }
+                assertMatches(solver, items, capacity);
+            }
+        }
+    }
+    
+    @Test
+    void buildsFromADataset() throws IOException {
+        ColumnarDataset data = ColumnarDataset.load("knapPI_3_1000_1000_1.txt");
+        IncrementalSolver solver = new IncrementalSolver(data);
+        TreeMap<Integer, int[]> items = new TreeMap<>();
+        for (int p = 0; p < data.n; p++) {
+            items.put(p + 1, new int[] {data.weights[p], data.values[p]});
+        }
+        assertMatches(solver, items, data.capacity);
+        
+        for (int capacity : new int[] {0, 1, data.capacity / 3, data.capacity * 2}) {
+            solver.setCapacity(capacity);
+            assertMatches(solver, items, capacity);
+        }
+        solver.setCapacity(data.capacity);
+        for (int id = 1; id <= 100; id++) {
+            solver.update(id, data.weights[id - 1] + 7, data.values[id - 1]);
+            items.put(id, new int[] {data.weights[id - 1] + 7, data.values[id - 1]});
+        }
+        assertMatches(solver, items, data.capacity);
+    }
+}
+
@@ -0,0 +1,112 @@
+package knapsack;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.LocalSearch;
+import knapsack.KnapsackSolver.Result;
+import knapsack.KnapsackSolver.SeededRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Hill climbing and tabu search after the greedy and random starts: feasible, never
+ * worse than the start, and a local optimum for the add and 1-for-1 moves.
+ */
+class LocalSearchTest {
+    
+    static boolean[] checkedSelection(ColumnarDataset data, Result result) {
+        boolean[] in = new boolean[data.n];
+        long weight = 0;
+        long value = 0;
+        for (int id : result.selectedItems) {
+            assertFalse(in[id - 1], "id " + id + " selected twice");
+            in[id - 1] = true;
+            weight += data.weights[id - 1];
+            value += data.values[id - 1];
+        }
+        assertTrue(weight <= data.capacity, "over capacity");
+        assertEquals(weight, result.totalWeight);
+        assertEquals(value, result.totalValue);
+        return in;
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"knapPI_1_200_1000_1.txt", "knapPI_2_200_1000_1.txt", "knapPI_3_200_1000_1.txt",
+        "knapPI_1_1000_1000_1.txt", "knapPI_2_1000_1000_1.txt", "knapPI_3_1000_1000_1.txt"})
+    void hillClimbingEndsAtALocalOptimum(String file) throws IOException {
+        ColumnarDataset data = ColumnarDataset.load(file);
+        List<Result> starts = List.of(
+                KnapsackSolver.zeroOneKnapsackByRatio(data),
+                KnapsackSolver.zeroOneKnapsackByWeight(data),
+                KnapsackSolver.randomSamplingKnapsack(data, SeededRandom.of(7)));
+        for (Result start : starts) {
+            Result result = KnapsackSolver.withLocalSearch(data, start);
+            boolean[] in = checkedSelection(data, result);
+            assertTrue(result.totalValue >= start.totalValue, start.strategyName);
+            assertTrue(result.totalValue <= data.optimalValue, start.strategyName);
+            
+            long room = data.capacity - (long) result.totalWeight;
+            for (int p = 0; p < data.n; p++) {
+                if (in[p] || data.values[p] == 0) continue;
+                assertTrue(data.weights[p] > room, "item " + (p + 1) + " still fits");
+                for (int q = 0; q < data.n; q++) {
+                    if (in[q] && data.values[p] > data.values[q]) {
+                        assertTrue(data.weights[p] - data.weights[q] > room,
+                                "swapping " + (q + 1) + " for " + (p + 1) + " improves");
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    void closesTheRatioGreedyGapOnSmallCorrelatedInstances() throws IOException {
+        for (String file : List.of("knapPI_2_100_1000_1.txt", "knapPI_2_200_1000_1.txt")) {
+            ColumnarDataset data = ColumnarDataset.load(file);
+            Result result = KnapsackSolver.STRATEGIES.get("zo-ratio-ls").apply(data);
+            assertEquals(data.optimalValue, result.totalValue, file);
+        }
+    }
+    
+    @Test
+    void tabuSearchOnRandomInstances() {
+        SplittableRandom rand = new SplittableRandom(11);
+        LocalSearch tabu = new LocalSearch();
+        tabu.tabuTenure = 7;
+        for (int k = 0; k < 300; k++) {
+            int n = 1 + rand.nextInt(80);
+            int[] weights = new int[n];
+            int[] values = new int[n];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                weights[i] = rand.nextInt(50);
+                values[i] = (k % 2 == 0) ? weights[i] + 10 : rand.nextInt(60);
+                total += weights[i];
+            }
+            ColumnarDataset data = new ColumnarDataset("random-" + k, (int) (total * rand.nextDouble()), weights, values);
+            long optimum = (long) KnapsackSolver.exactKnapsackDP(data).totalValue;
+            for (Result start : List.of(KnapsackSolver.zeroOneKnapsackByRatio(data),
+                                        KnapsackSolver.randomSamplingKnapsack(data, SeededRandom.of(k)))) {
+                for (Result result : List.of(tabu.improve(data, start), KnapsackSolver.withLocalSearch(data, start))) {
+                    checkedSelection(data, result);
+                    assertTrue(result.totalValue >= start.totalValue, result.strategyName);
+                    assertTrue(result.totalValue <= optimum, result.strategyName);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void rejectsAnInfeasibleStart() {
+        ColumnarDataset data = new ColumnarDataset("small", 5, new int[] {3, 4}, new int[] {1, 1});
+        Result start = new Result("both");
+        start.selectedItems.addAll(List.of(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> KnapsackSolver.withLocalSearch(data, start));
+    }
+}
+
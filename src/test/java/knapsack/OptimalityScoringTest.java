@@ -0,0 +1,120 @@
+package knapsack;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.Result;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The optimum read from the knapPI solution line and the gap every result reports
+ * against it, and the linear-time fractional solve that bounds the anytime search.
+ */
+class OptimalityScoringTest {
+    
+    @TempDir
+    Path dir;
+    
+    private ColumnarDataset loadText(String text) throws IOException {
+        Path file = Files.writeString(Files.createTempFile(dir, "instance", ".txt"), text);
+        return ColumnarDataset.loadText(file.toString());
+    }
+    
+    @Test
+    void optimumIsTheValueOfTheSolutionLine() throws IOException {
+        for (String file : KnapsackSolver.bundledInstanceFiles()) {
+            if (!file.startsWith("knapPI_")) continue;
+            ColumnarDataset text = ColumnarDataset.loadText(file);
+            assertNotNull(text.optimalSelection, file);
+            long value = 0;
+            for (int p = 0; p < text.n; p++) {
+                if (text.optimalSelection[p] == 1) value += text.values[p];
+            }
+            assertEquals(value, text.optimalValue, file);
+            
+            // The binary sidecar keeps the selection and its value
+            ColumnarDataset cached = ColumnarDataset.load(file);
+            assertEquals(text.optimalValue, cached.optimalValue, file);
+            assertArrayEquals(text.optimalSelection, cached.optimalSelection, file);
+        }
+    }
+    
+    @Test
+    void malformedSolutionLinesAreIgnored() throws IOException {
+        String items = "3 10\n5 4\n6 5\n7 6\n";
+        assertEquals(11, loadText(items + "1 1 0\n").optimalValue);
+        assertEquals(-1, loadText(items).optimalValue);
+        assertEquals(-1, loadText(items + "1 1\n").optimalValue);       // too short
+        assertEquals(-1, loadText(items + "1 1 0 0\n").optimalValue);   // too long
+        assertEquals(-1, loadText(items + "1 2 0\n").optimalValue);     // not 0/1
+        assertEquals(-1, loadText(items + "1 1 1\n").optimalValue);     // over capacity
+        assertNull(loadText(items + "1 1 1\n").optimalSelection);
+    }
+    
+    @Test
+    void resultsCarryTheirGap() throws IOException {
+        ColumnarDataset data = ColumnarDataset.load("knapPI_1_100_1000_1.txt");
+        Result exact = KnapsackSolver.STRATEGIES.get("exact-dp").apply(data);
+        assertEquals(data.optimalValue, exact.optimalValue);
+        assertEquals(100, exact.getOptimalityRatio(), 1e-9);
+        assertEquals(0, exact.getOptimalityGap(), 1e-9);
+        
+        Result greedy = KnapsackSolver.STRATEGIES.get("zo-ratio").apply(data);
+        assertEquals(100 * greedy.totalValue / data.optimalValue, greedy.getOptimalityRatio(), 1e-9);
+        assertTrue(greedy.getOptimalityGap() >= 0);
+        
+        // f*_l-d_kp files have no solution line
+        ColumnarDataset unscored = ColumnarDataset.load("f1_l-d_kp_10_269.txt");
+        Result r = KnapsackSolver.STRATEGIES.get("zo-ratio").apply(unscored);
+        assertEquals(-1, r.optimalValue);
+        assertTrue(Double.isNaN(r.getOptimalityRatio()));
+        assertTrue(Double.isNaN(r.getOptimalityGap()));
+    }
+    
+    private static void assertSameFractional(ColumnarDataset data) {
+        Result sorted = KnapsackSolver.fractionalKnapsackByRatio(data);
+        Result linear = KnapsackSolver.fractionalKnapsackByRatioLinear(data);
+        assertEquals(sorted.totalValue, linear.totalValue, 1e-9 * Math.max(1, sorted.totalValue), data.filename);
+        assertEquals(sorted.totalWeight, linear.totalWeight, 1e-9, data.filename);
+        assertEquals(new HashSet<>(sorted.selectedItems), new HashSet<>(linear.selectedItems), data.filename);
+        assertEquals(data.optimalValue, linear.optimalValue);
+    }
+    
+    @Test
+    void linearFractionalMatchesSortedOnBundledInstances() {
+        for (String file : KnapsackSolver.bundledInstanceFiles()) {
+            ColumnarDataset data;
+            try {
+                data = ColumnarDataset.load(file);
+            } catch (IOException e) {
+                continue; // f5 has decimal weights and does not load
+            }
+            assertSameFractional(data);
+        }
+    }
+    
+    @Test
+    void linearFractionalMatchesSortedWithTies() {
+        SplittableRandom rand = new SplittableRandom(3);
+        for (int k = 0; k < 2000; k++) {
+            int n = rand.nextInt(50);
+            int[] weights = new int[n];
+            int[] values = new int[n];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                // Few distinct ratios, so the order leans on the position tie-break
+                weights[i] = 1 + rand.nextInt(4);
+                values[i] = weights[i] * (1 + rand.nextInt(3));
+                total += weights[i];
+            }
+            assertSameFractional(new ColumnarDataset("ties-" + k, (int) (total * rand.nextDouble()), weights, values));
+        }
+    }
+}
+
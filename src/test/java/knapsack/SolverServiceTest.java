@@ -0,0 +1,95 @@
+package knapsack;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.SolverService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The serve endpoints over HTTP: query validation answers 400 with the reason, and
+ * valid requests answer with the solve.
+ */
+class SolverServiceTest {
+    
+    static SolverService service;
+    static HttpClient client;
+    
+    @BeforeAll
+    static void start() throws Exception {
+        service = new SolverService(64L << 20);
+        service.start(0);
+        client = HttpClient.newHttpClient();
+    }
+    
+    @AfterAll
+    static void stop() {
+        service.stop();
+    }
+    
+    static HttpResponse<String> get(String pathAndQuery) throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + service.port() + pathAndQuery);
+        return client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    static void assertRejected(int status, String message, String pathAndQuery) throws Exception {
+        HttpResponse<String> response = get(pathAndQuery);
+        assertEquals(status, response.statusCode(), response.body());
+        assertTrue(response.body().contains(message), response.body());
+    }
+    
+    @Test
+    void rejectsInvalidParameters() throws Exception {
+        String solve = "/solve?file=knapPI_1_100_1000_1.txt";
+        assertRejected(400, "file and strategy are required", "/solve?strategy=zo-ratio");
+        assertRejected(400, "file and strategy are required", solve);
+        assertRejected(400, "Unknown strategy: nope", solve + "&strategy=nope");
+        assertRejected(400, "capacity must be >= 0", solve + "&strategy=zo-ratio&capacity=-1");
+        assertRejected(400, "capacity must be an integer: abc", solve + "&strategy=zo-ratio&capacity=abc");
+        assertRejected(400, "capacity too large", solve + "&strategy=zo-ratio&capacity=3000000000");
+        assertRejected(400, "budget must be > 0 ms", solve + "&strategy=bnb&budget=0");
+        assertRejected(400, "budget must be > 0 ms", solve + "&strategy=bnb&budget=-5");
+        assertRejected(400, "budget must be an integer: 1.5", solve + "&strategy=bnb&budget=1.5");
+        assertRejected(400, "budget too large", solve + "&strategy=bnb&budget=" + Long.MAX_VALUE);
+        assertRejected(400, "takes no budget", solve + "&strategy=zo-ratio&budget=10");
+        assertRejected(404, "No such file", "/solve?file=missing.txt&strategy=zo-ratio");
+    }
+    
+    @Test
+    void solves() throws Exception {
+        ColumnarDataset data = ColumnarDataset.load("knapPI_1_100_1000_1.txt");
+        HttpResponse<String> exact = get("/solve?file=knapPI_1_100_1000_1.txt&strategy=exact-dp&items=true");
+        assertEquals(200, exact.statusCode(), exact.body());
+        assertTrue(exact.body().contains("\"value\":" + data.optimalValue + ".00"), exact.body());
+        assertTrue(exact.body().contains("\"proven_optimal\":true"), exact.body());
+        assertTrue(exact.body().contains("\"optimality\":100.0000"), exact.body());
+        assertTrue(exact.body().contains("\"items\":["), exact.body());
+        
+        HttpResponse<String> empty = get("/solve?file=knapPI_1_100_1000_1.txt&strategy=exact-dp&capacity=0");
+        assertEquals(200, empty.statusCode(), empty.body());
+        assertTrue(empty.body().contains("\"value\":0.00,\"weight\":0.00"), empty.body());
+        
+        HttpResponse<String> budgeted = get("/solve?file=knapPI_1_100_1000_1.txt&strategy=mc1-anytime&budget=5");
+        assertEquals(200, budgeted.statusCode(), budgeted.body());
+    }
+    
+    @Test
+    void listsStrategiesAndStats() throws Exception {
+        HttpResponse<String> strategies = get("/strategies");
+        assertEquals(200, strategies.statusCode());
+        for (String name : KnapsackSolver.STRATEGIES.keySet()) {
+            assertTrue(strategies.body().contains("\"" + name + "\""), name);
+        }
+        
+        HttpResponse<String> stats = get("/stats");
+        assertEquals(200, stats.statusCode());
+        assertTrue(stats.body().startsWith("{\"requests\":"), stats.body());
+    }
+}
+
@@ -0,0 +1,136 @@
+package knapsack;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import knapsack.KnapsackSolver.ColumnarDataset;
+import knapsack.KnapsackSolver.Dataset;
+import knapsack.KnapsackSolver.Item;
+import knapsack.KnapsackSolver.Result;
+import knapsack.KnapsackSolver.SampledThresholdPolicy;
+import knapsack.KnapsackSolver.StreamingPolicy;
+import knapsack.KnapsackSolver.ThresholdPolicy;
+import knapsack.KnapsackSolver.TopRatioPolicy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The one-pass policies over instance files read as streams: feasible, within the LP
+ * bound, and for top-k with k >= n the same selection as the offline ratio greedy.
+ */
+class StreamingTest {
+    
+    static final List<String> FILES = List.of("knapPI_1_1000_1000_1.txt", "knapPI_2_1000_1000_1.txt",
+            "knapPI_3_1000_1000_1.txt", "knapPI_1_10000_1000_1.txt", "f8_l-d_kp_23_10000.txt");
+    
+    static Result stream(String file, BiFunction<Integer, Integer, StreamingPolicy> policy) throws IOException {
+        try (InputStream in = Files.newInputStream(Paths.get(file))) {
+            return KnapsackSolver.solveStream(in, policy);
+        }
+    }
+    
+    static void assertFeasible(ColumnarDataset data, Result result) {
+        Set<Integer> seen = new HashSet<>();
+        long weight = 0;
+        long value = 0;
+        for (int id : result.selectedItems) {
+            assertTrue(seen.add(id), "id " + id + " selected twice");
+            weight += data.weights[id - 1];
+            value += data.values[id - 1];
+        }
+        assertTrue(weight <= data.capacity, "over capacity");
+        assertEquals(weight, result.totalWeight);
+        assertEquals(value, result.totalValue);
+    }
+    
+    @Test
+    void topKWithRoomForEveryItemIsTheRatioGreedy() throws IOException {
+        for (String file : FILES) {
+            ColumnarDataset data = ColumnarDataset.load(file);
+            Result offline = KnapsackSolver.zeroOneKnapsackByRatio(data);
+            Result streamed = stream(file, (n, capacity) -> new TopRatioPolicy(capacity, n));
+            assertEquals(offline.totalValue, streamed.totalValue, file);
+            assertEquals(new HashSet<>(offline.selectedItems), new HashSet<>(streamed.selectedItems), file);
+        }
+    }
+    
+    @Test
+    void everyPolicyStaysFeasible() throws IOException {
+        for (String file : FILES) {
+            ColumnarDataset data = ColumnarDataset.load(file);
+            double bound = KnapsackSolver.fractionalKnapsackByRatio(data).totalValue;
+            int warmup = Math.min(1000, data.n / 20);
+            for (Result result : List.of(
+                    stream(file, (n, capacity) -> new TopRatioPolicy(capacity, 10)),
+                    stream(file, (n, capacity) -> new ThresholdPolicy(capacity, warmup)),
+                    stream(file, (n, capacity) -> new SampledThresholdPolicy(capacity, n, warmup)))) {
+                assertFeasible(data, result);
+                assertTrue(result.totalValue <= bound, result.strategyName);
+            }
+            assertTrue(stream(file, (n, capacity) -> new TopRatioPolicy(capacity, 10)).selectedItems.size() <= 10);
+        }
+    }
+    
+    @Test
+    void discardedIdsKeepTheTotals() throws IOException {
+        String file = "knapPI_3_10000_1000_1.txt";
+        Result listed = stream(file, (n, capacity) -> new SampledThresholdPolicy(capacity, n, 500));
+        Result totals = stream(file, (n, capacity) -> {
+            SampledThresholdPolicy policy = new SampledThresholdPolicy(capacity, n, 500);
+            policy.selections = KnapsackSolver.DISCARD_IDS;
+            return policy;
+        });
+        assertTrue(totals.selectedItems.isEmpty());
+        assertEquals(listed.totalValue, totals.totalValue);
+        assertEquals(listed.totalWeight, totals.totalWeight);
+    }
+    
+    @Test
+    void thresholdAdmission() {
+        // Ratios within [1, 4], so psi(z) = (4e)^z / e: 0.37 empty, 0.95 at 40% full, 1.54 at 60%
+        ThresholdPolicy policy = new ThresholdPolicy(10, 1.0, 4.0);
+        policy.offer(1, 0, 5);    // free
+        policy.offer(2, 3, 0);    // worthless
+        policy.offer(3, 11, 44);  // does not fit
+        policy.offer(4, 4, 16);
+        policy.offer(5, 4, 3);    // 0.75 < 0.95
+        policy.offer(6, 2, 4);
+        policy.offer(7, 2, 3);    // 1.5 < 1.54
+        Result result = policy.finish();
+        assertEquals(List.of(1, 4, 6), result.selectedItems);
+        assertEquals(25, result.totalValue);
+        assertEquals(6, result.totalWeight);
+    }
+    
+    @Test
+    void streamsAndIteratorsAgree() throws IOException {
+        String text = "4 10\n5 4\n6 5\n9 3\n1 0\n";
+        Result streamed = KnapsackSolver.solveStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)),
+                (n, capacity) -> new TopRatioPolicy(capacity, n));
+        Result iterated = KnapsackSolver.solveStream(
+                List.of(new Item(1, 4, 5), new Item(2, 5, 6), new Item(3, 3, 9), new Item(4, 0, 1)).iterator(),
+                new TopRatioPolicy(10, 4));
+        ColumnarDataset data = new ColumnarDataset("inline", 10, new int[] {4, 5, 3, 0}, new int[] {5, 6, 9, 1});
+        assertEquals(streamed.totalValue, iterated.totalValue);
+        assertEquals(new HashSet<>(streamed.selectedItems), new HashSet<>(iterated.selectedItems));
+        assertEquals(KnapsackSolver.zeroOneKnapsackByRatio(data).totalValue, streamed.totalValue);
+        
+        Dataset dataset = new Dataset("knapPI_1_100_1000_1.txt");
+        Result fromItems = KnapsackSolver.solveStream(dataset.getItemsCopy().iterator(),
+                new TopRatioPolicy(dataset.capacity, dataset.n));
+        assertEquals(KnapsackSolver.zeroOneKnapsackByRatio(dataset.columnar()).totalValue, fromItems.totalValue);
+        
+        assertThrows(IOException.class, () -> KnapsackSolver.solveStream(
+                new ByteArrayInputStream("-1 10\n".getBytes(StandardCharsets.US_ASCII)),
+                (n, capacity) -> new TopRatioPolicy(capacity, 1)));
+    }
+}
+